@@ -0,0 +1,288 @@
+package frc.lib.logging.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a logger for every class with {@code @Logged} members. The generated logger resolves a handle for each
+ * member once, and its log method writes each member through its handle, so logging a class costs no string hashing
+ * or boxing.
+ */
+@SupportedAnnotationTypes(LoggedProcessor.loggedAnnotation)
+@SupportedSourceVersion(SourceVersion.RELEASE_17)
+public class LoggedProcessor extends AbstractProcessor {
+    static final String loggedAnnotation = "frc.lib.logging.Logged";
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        TypeElement logged = processingEnv.getElementUtils().getTypeElement(loggedAnnotation);
+        if (logged == null) return false;
+
+        // Group the logged members by the class that declares them, keeping declaration order
+        Map<TypeElement, List<Element>> membersByClass = new LinkedHashMap<>();
+        for (Element member : roundEnvironment.getElementsAnnotatedWith(logged)) {
+            TypeElement owner = (TypeElement) member.getEnclosingElement();
+            membersByClass.computeIfAbsent(owner, key -> new ArrayList<>()).add(member);
+        }
+
+        for (Map.Entry<TypeElement, List<Element>> entry : membersByClass.entrySet()) {
+            generateLogger(entry.getKey(), entry.getValue());
+        }
+
+        return true;
+    }
+
+    private void generateLogger(TypeElement owner, List<Element> members) {
+        String packageName = getPackage(owner).getQualifiedName().toString();
+        String ownerName = owner.getQualifiedName().toString();
+        String loggerName = getFlatName(owner) + "Logger";
+
+        List<String> fields = new ArrayList<>();
+        List<String> statements = new ArrayList<>();
+        Set<String> handleNames = new HashSet<>();
+
+        for (Element member : members) {
+            if (member.getModifiers().contains(Modifier.PRIVATE)) {
+                error(
+                        member,
+                        "@Logged members must not be private, the generated logger reads them directly. Log private "
+                                + "state through a package-private getter instead");
+                continue;
+            }
+
+            TypeMirror type;
+            String access;
+
+            if (member.getKind() == ElementKind.METHOD) {
+                ExecutableElement method = (ExecutableElement) member;
+                if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID) {
+                    error(member, "@Logged methods must take no arguments and return a value");
+                    continue;
+                }
+
+                type = method.getReturnType();
+                access = "object." + member.getSimpleName() + "()";
+            } else {
+                type = member.asType();
+                access = "object." + member.getSimpleName();
+            }
+
+            Mapping mapping = getMapping(type);
+            if (mapping == null) {
+                error(member, "@Logged does not support the type " + type);
+                continue;
+            }
+
+            String name = getKeyName(member);
+            String key = "/" + owner.getSimpleName() + "/" + name;
+
+            String handleName = member.getSimpleName() + "Handle";
+            while (!handleNames.add(handleName)) handleName += "_";
+
+            fields.add(String.format(
+                    "    private final %s %s = %s;",
+                    mapping.handleType, handleName, String.format(mapping.factory, quote(key))));
+            statements.add(String.format("        %s.set(%s);", handleName, String.format(mapping.value, access)));
+        }
+
+        String qualifiedLoggerName = packageName.isEmpty() ? loggerName : packageName + "." + loggerName;
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedLoggerName, owner);
+
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+
+                out.println("import frc.lib.logging.LogHandle.*;");
+                out.println("import frc.lib.logging.LogStruct;");
+                out.println("import frc.lib.logging.Logger;");
+                out.println();
+                out.println("/**");
+                out.println(" * Logs the @Logged members of {@link " + ownerName + "}. Generated, do not edit.");
+                out.println(" */");
+                out.println("final class " + loggerName + " {");
+
+                for (String field : fields) {
+                    out.println(field);
+                }
+
+                out.println();
+                out.println("    void log(" + ownerName + " object) {");
+
+                for (String statement : statements) {
+                    out.println(statement);
+                }
+
+                out.println("    }");
+                out.println("}");
+            }
+        } catch (IOException exception) {
+            error(owner, "Could not write " + qualifiedLoggerName + ": " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Returns how a type is logged, or null if it is not supported.
+     */
+    private Mapping getMapping(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return new Mapping("BooleanHandle", "Logger.booleanHandle(%s)", "%s");
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return new Mapping("IntegerHandle", "Logger.integerHandle(%s)", "%s");
+            case FLOAT:
+            case DOUBLE:
+                return new Mapping("DoubleHandle", "Logger.doubleHandle(%s)", "%s");
+            case ARRAY:
+                return getArrayMapping(((ArrayType) type).getComponentType());
+            case DECLARED:
+                break;
+            default:
+                return null;
+        }
+
+        Element element = processingEnv.getTypeUtils().asElement(type);
+        if (element.getKind() == ElementKind.ENUM) {
+            return new Mapping("StringHandle", "Logger.stringHandle(%s)", "%s.name()");
+        }
+
+        switch (((TypeElement) element).getQualifiedName().toString()) {
+            case "java.lang.String":
+                return new Mapping("StringHandle", "Logger.stringHandle(%s)", "%s");
+            case "edu.wpi.first.math.geometry.Rotation2d":
+                return new Mapping("DoubleHandle", "Logger.doubleHandle(%s)", "%s.getRadians()");
+            case "edu.wpi.first.math.geometry.Pose2d":
+                return doublesMapping("edu.wpi.first.math.geometry.Pose2d", "pose2d");
+            case "edu.wpi.first.math.geometry.Pose3d":
+                return doublesMapping("edu.wpi.first.math.geometry.Pose3d", "pose3d");
+            case "edu.wpi.first.math.geometry.Translation2d":
+                return doublesMapping("edu.wpi.first.math.geometry.Translation2d", "translation2d");
+        }
+
+        // Subclasses such as SwerveDriveSignal are logged as their ChassisSpeeds
+        if (isAssignable(type, "edu.wpi.first.math.kinematics.ChassisSpeeds")) {
+            return doublesMapping("edu.wpi.first.math.kinematics.ChassisSpeeds", "chassisSpeeds");
+        }
+
+        return null;
+    }
+
+    private Mapping getArrayMapping(TypeMirror componentType) {
+        switch (componentType.getKind()) {
+            case BYTE:
+                return new Mapping("RawHandle", "Logger.rawHandle(%s)", "%s");
+            case BOOLEAN:
+                return new Mapping("BooleanArrayHandle", "Logger.booleanArrayHandle(%s)", "%s");
+            case LONG:
+                return new Mapping("IntegerArrayHandle", "Logger.integerArrayHandle(%s)", "%s");
+            case DOUBLE:
+                return new Mapping("DoubleArrayHandle", "Logger.doubleArrayHandle(%s)", "%s");
+            case DECLARED:
+                break;
+            default:
+                return null;
+        }
+
+        if (isAssignable(componentType, "java.lang.String")) {
+            return new Mapping("StringArrayHandle", "Logger.stringArrayHandle(%s)", "%s");
+        }
+
+        if (isAssignable(componentType, "edu.wpi.first.math.kinematics.SwerveModuleState")) {
+            return doublesMapping("edu.wpi.first.math.kinematics.SwerveModuleState", "swerveModuleState");
+        }
+
+        return null;
+    }
+
+    /**
+     * Logs a struct type in its double array layout, which dashboards read.
+     */
+    private static Mapping doublesMapping(String typeName, String structName) {
+        return new Mapping(
+                "StructDoublesHandle<" + typeName + ">",
+                "Logger.doubleArrayHandle(%s, LogStruct." + structName + ")",
+                "%s");
+    }
+
+    private boolean isAssignable(TypeMirror type, String typeName) {
+        TypeElement element = processingEnv.getElementUtils().getTypeElement(typeName);
+        return element != null && processingEnv.getTypeUtils().isAssignable(type, element.asType());
+    }
+
+    private static String getKeyName(Element member) {
+        for (AnnotationMirror annotation : member.getAnnotationMirrors()) {
+            if (!annotation.getAnnotationType().toString().equals(loggedAnnotation)) continue;
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                    annotation.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    String name = (String) entry.getValue().getValue();
+                    if (!name.isEmpty()) return name;
+                }
+            }
+        }
+
+        return member.getSimpleName().toString();
+    }
+
+    private static PackageElement getPackage(Element element) {
+        while (!(element instanceof PackageElement)) element = element.getEnclosingElement();
+        return (PackageElement) element;
+    }
+
+    /**
+     * Returns the name of a class including any enclosing classes, such as Outer_Inner.
+     */
+    private static String getFlatName(TypeElement type) {
+        Element enclosing = type.getEnclosingElement();
+        if (enclosing instanceof TypeElement) {
+            return getFlatName((TypeElement) enclosing) + "_" + type.getSimpleName();
+        }
+
+        return type.getSimpleName().toString();
+    }
+
+    private static String quote(String string) {
+        return "\"" + string.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * How a type is logged: the handle's type, the factory call that creates it from a key, and the expression
+     * passed to set from an access of the member.
+     */
+    private record Mapping(String handleType, String factory, String value) {}
+}
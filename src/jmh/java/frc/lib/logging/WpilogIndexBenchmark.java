@@ -0,0 +1,171 @@
+package frc.lib.logging;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares extracting a single key from a large synthetic wpilog with {@link WpilogIndex} against a linear scan with
+ * WPILib's DataLogReader. The log imitates a long robot session: a few hundred double keys and some booleans written
+ * every 20 ms loop, until the file reaches the requested size.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WpilogIndexBenchmark {
+    private static final int doubleKeyCount = 200;
+    private static final int booleanKeyCount = 20;
+
+    private static final String extractedKey = "/Benchmark/Double 17";
+
+    @Param({"500"})
+    public int logSizeMB;
+
+    private Path logPath;
+
+    private WpilogIndex index;
+
+    private long endTime;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        logPath = Files.createTempFile("benchmark", ".wpilog");
+        endTime = writeSyntheticLog(logPath, logSizeMB * 1_000_000L);
+
+        index = new WpilogIndex(logPath.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(logPath);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public WpilogIndex buildIndex() throws IOException {
+        return new WpilogIndex(logPath.toString());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public void extractWithDataLogReader(Blackhole blackhole) throws IOException {
+        int entry = -1;
+
+        for (DataLogRecord record : new DataLogReader(logPath.toString())) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData data = record.getStartData();
+                if (data.name.equals(extractedKey)) entry = data.entry;
+            } else if (record.getEntry() == entry) {
+                blackhole.consume(record.getTimestamp());
+                blackhole.consume(record.getDouble());
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void extractWithIndex(Blackhole blackhole) {
+        blackhole.consume(index.getTimestamps(extractedKey, 0, endTime));
+        blackhole.consume(index.getDoubles(extractedKey, 0, endTime));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void extractMinuteWithIndex(Blackhole blackhole) {
+        long startTime = endTime / 2;
+
+        blackhole.consume(index.getTimestamps(extractedKey, startTime, startTime + 60_000_000));
+        blackhole.consume(index.getDoubles(extractedKey, startTime, startTime + 60_000_000));
+    }
+
+    /**
+     * Writes a version 1.0 wpilog directly, since DataLog needs the native libraries.
+     *
+     * @return The timestamp of the last loop in microseconds
+     */
+    private static long writeSyntheticLog(Path path, long targetSize) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 20)) {
+            out.write("WPILOG".getBytes(StandardCharsets.US_ASCII));
+            writeInteger(out, 0x0100, 2);
+            writeInteger(out, 0, 4);
+
+            long size = 12;
+            int entryCount = doubleKeyCount + booleanKeyCount;
+
+            for (int entry = 1; entry <= entryCount; entry++) {
+                boolean isDouble = entry <= doubleKeyCount;
+                byte[] name = ("/Benchmark/" + (isDouble ? "Double " : "Boolean ") + (entry - 1))
+                        .getBytes(StandardCharsets.UTF_8);
+                byte[] type = (isDouble ? "double" : "boolean").getBytes(StandardCharsets.UTF_8);
+
+                int payloadSize = 1 + 4 + 4 + name.length + 4 + type.length + 4;
+                size += writeRecordHeader(out, 0, payloadSize, 0);
+
+                out.write(0);
+                writeInteger(out, entry, 4);
+                writeInteger(out, name.length, 4);
+                out.write(name);
+                writeInteger(out, type.length, 4);
+                out.write(type);
+                writeInteger(out, 0, 4);
+                size += payloadSize;
+            }
+
+            long timestamp = 0;
+            while (size < targetSize) {
+                timestamp += 20_000;
+
+                for (int entry = 1; entry <= entryCount; entry++) {
+                    if (entry <= doubleKeyCount) {
+                        size += writeRecordHeader(out, entry, 8, timestamp);
+                        writeInteger(out, Double.doubleToRawLongBits(Math.sin(timestamp / 1e6 + entry)), 8);
+                        size += 8;
+                    } else {
+                        size += writeRecordHeader(out, entry, 1, timestamp);
+                        out.write((int) ((timestamp / 1_000_000 + entry) & 1));
+                        size += 1;
+                    }
+                }
+            }
+
+            return timestamp;
+        }
+    }
+
+    private static int writeRecordHeader(OutputStream out, int entry, int payloadSize, long timestamp)
+            throws IOException {
+        int idLength = byteLength(entry);
+        int sizeLength = byteLength(payloadSize);
+        int timestampLength = byteLength(timestamp);
+
+        out.write((idLength - 1) | ((sizeLength - 1) << 2) | ((timestampLength - 1) << 4));
+        writeInteger(out, entry, idLength);
+        writeInteger(out, payloadSize, sizeLength);
+        writeInteger(out, timestamp, timestampLength);
+
+        return 1 + idLength + sizeLength + timestampLength;
+    }
+
+    private static int byteLength(long value) {
+        int length = 1;
+        while (length < 8 && (value >>> (length * 8)) != 0) length++;
+
+        return length;
+    }
+
+    private static void writeInteger(OutputStream out, long value, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            out.write((int) (value >>> (i * 8)));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package frc.lib.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the per-cycle cost of the real DataLogWriter and NTWriter for a loop's table, including the DataLog and
+ * NetworkTables calls and a keyframe every 250 cycles. The DataLog is written to a temporary directory and
+ * NetworkTables publishes to the local instance without a server, so the native libraries must be on the library
+ * path, which the jmh task sets up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriterBenchmark {
+    private static final int keyframeInterval = 250;
+
+    @Param({"100", "500", "2000"})
+    public int keyCount;
+
+    // The fraction of values that change each cycle, the rest are skipped by the delta filter
+    @Param({"1.0", "0.1"})
+    public double changedFraction;
+
+    private LogTable table;
+    private int changedKeys;
+
+    private long cycle = 0;
+
+    private File logDirectory;
+
+    private DataLogWriter dataLogWriter;
+    private NTWriter ntWriter;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        table = new LogTable();
+        for (int i = 0; i < keyCount; i++) {
+            table.put(LogKeyRegistry.register("/Benchmark/Key " + i)).setDouble(i);
+        }
+
+        changedKeys = (int) (keyCount * changedFraction);
+
+        logDirectory = Files.createTempDirectory("benchmark").toFile();
+
+        dataLogWriter = new DataLogWriter(keyframeInterval);
+        dataLogWriter.setSink(new RotatingDataLog(
+                logDirectory.getAbsolutePath(), "Benchmark_", Long.MAX_VALUE, Double.MAX_VALUE, Long.MAX_VALUE));
+
+        ntWriter = new NTWriter(keyframeInterval);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] files = logDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+
+        logDirectory.delete();
+    }
+
+    private void updateTable() {
+        cycle++;
+
+        for (int i = 0; i < changedKeys; i++) {
+            table.getValue(i).setDouble(cycle + i);
+        }
+
+        table.setTimestamp(cycle * 20_000);
+    }
+
+    @Benchmark
+    public void dataLogWriter() {
+        updateTable();
+        dataLogWriter.sendUpdates(table);
+    }
+
+    @Benchmark
+    public void ntWriter() {
+        updateTable();
+        ntWriter.sendUpdates(table);
+    }
+}
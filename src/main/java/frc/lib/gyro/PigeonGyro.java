@@ -1,6 +1,8 @@
 package frc.lib.gyro;
 
+import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.sensors.Pigeon2;
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.util.Units;
@@ -16,6 +18,13 @@ public class PigeonGyro implements GenericGyro {
         pigeon = new Pigeon2(port);
     }
 
+    /**
+     * Sets how often the yaw, pitch and roll are sent over CAN, which limits how often a new reading is available.
+     */
+    public ErrorCode setOrientationPeriod(int periodMs) {
+        return pigeon.setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR, periodMs);
+    }
+
     public Rotation2d getRotation2d() {
         return Rotation2d.fromDegrees(pigeon.getYaw());
     }
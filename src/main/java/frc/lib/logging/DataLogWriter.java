@@ -2,64 +2,149 @@ package frc.lib.logging;
 
 import edu.wpi.first.util.datalog.DataLog;
 import edu.wpi.first.wpilibj.DataLogManager;
-import frc.lib.logging.LogValue.LoggableType;
-import frc.lib.logging.Logger.LogTable;
+import frc.lib.logging.LoggingThread.OverflowPolicy;
 import frc.lib.logging.LoggingThread.Writer;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 public class DataLogWriter implements Writer {
-    private final DataLog log = DataLogManager.getLog();
+    // Set from the main thread, and picked up by the logging thread on its next table
+    private volatile RotatingDataLog nextSink = null;
 
-    private final Map<String, Integer> entryIDs = new HashMap<>();
+    private RotatingDataLog sink = null;
+    private DataLog log = null;
+
+    // DataLog entry ids indexed by key id, -1 for keys without an entry
+    private int[] entryIDs = new int[0];
+
+    private final DeltaFilter deltaFilter;
+
+    private final LogPriorities priorities = new LogPriorities();
+    private LogPriority lowestWritten = LogPriority.Debug;
+
+    /**
+     * @param keyframeInterval The number of cycles between writing every value, unchanged values are skipped
+     * otherwise.
+     */
+    public DataLogWriter(int keyframeInterval) {
+        deltaFilter = new DeltaFilter(keyframeInterval);
+    }
+
+    /**
+     * Writes to a rotating log instead of the DataLogManager's log.
+     */
+    void setSink(RotatingDataLog sink) {
+        nextSink = sink;
+    }
+
+    public boolean canShed() {
+        return true;
+    }
+
+    // Coalescing would merge several loops into one, and replay reads this log one loop at a time
+    public OverflowPolicy getDefaultOverflowPolicy() {
+        return OverflowPolicy.Block;
+    }
+
+    public void setLowestWritten(LogPriority priority) {
+        lowestWritten = priority;
+    }
 
     public void sendUpdates(LogTable logTable) {
-        for (Map.Entry<String, LogValue> field : logTable.updatesMap().entrySet()) {
-            // Create entry if necessary
-            LoggableType type = field.getValue().type;
-            if (!entryIDs.containsKey(field.getKey())) {
-                entryIDs.put(field.getKey(), log.start(field.getKey(), type.getWPILOGType()));
+        RotatingDataLog currentSink = nextSink;
+        boolean isNewLog = log == null || currentSink != sink;
+        sink = currentSink;
+
+        if (sink != null) {
+            isNewLog |= sink.rotateIfNeeded(logTable.timestamp());
+            log = sink.getLog();
+        } else if (isNewLog) {
+            log = DataLogManager.getLog();
+        }
+
+        // A new log needs its entries started again, and every value written so it can be read on its own
+        if (isNewLog) {
+            Arrays.fill(entryIDs, -1);
+            deltaFilter.forceKeyframe();
+        }
+
+        boolean isKeyframe = deltaFilter.startCycle();
+
+        for (int i = 0; i < logTable.size(); i++) {
+            int keyID = logTable.getId(i);
+            LogValue value = logTable.getValue(i);
+
+            // Shed values are left out of the delta filter, so they are written once their priority catches up
+            if (!priorities.get(keyID).isWrittenAt(lowestWritten)) continue;
+
+            // Only write values that have changed, unchanged values are written below on keyframes
+            if (deltaFilter.update(keyID, value)) {
+                append(keyID, value, value.timestamp != 0 ? value.timestamp : logTable.timestamp());
             }
+        }
 
-            // Store the logging id
-            int id = entryIDs.get(field.getKey());
-
-            // Send updates to NetworkTables and DataLog
-            switch (field.getValue().type) {
-                case Raw:
-                    log.appendRaw(id, field.getValue().getRaw(), logTable.timestamp());
-                    break;
-                case Boolean:
-                    log.appendBoolean(id, field.getValue().getBoolean(), logTable.timestamp());
-                    break;
-                case BooleanArray:
-                    log.appendBooleanArray(id, field.getValue().getBooleanArray(), logTable.timestamp());
-                    break;
-                case Integer:
-                    log.appendInteger(id, field.getValue().getInteger(), logTable.timestamp());
-                    break;
-                case IntegerArray:
-                    log.appendIntegerArray(id, field.getValue().getIntegerArray(), logTable.timestamp());
-                    break;
-                case Float:
-                    log.appendFloat(id, field.getValue().getFloat(), logTable.timestamp());
-                    break;
-                case FloatArray:
-                    log.appendFloatArray(id, field.getValue().getFloatArray(), logTable.timestamp());
-                    break;
-                case Double:
-                    log.appendDouble(id, field.getValue().getDouble(), logTable.timestamp());
-                    break;
-                case DoubleArray:
-                    log.appendDoubleArray(id, field.getValue().getDoubleArray(), logTable.timestamp());
-                    break;
-                case String:
-                    log.appendString(id, field.getValue().getString(), logTable.timestamp());
-                    break;
-                case StringArray:
-                    log.appendStringArray(id, field.getValue().getStringArray(), logTable.timestamp());
-                    break;
+        if (isKeyframe) {
+            // Repeated values are dated now, a captured timestamp would put them in an earlier cycle
+            for (int keyID = 0; keyID < deltaFilter.getIdLimit(); keyID++) {
+                LogValue value = deltaFilter.getLastValue(keyID);
+                if (value != null
+                        && !deltaFilter.isChanged(keyID)
+                        && priorities.get(keyID).isWrittenAt(lowestWritten)) {
+                    append(keyID, value, logTable.timestamp());
+                }
             }
         }
     }
+
+    private void append(int keyID, LogValue value, long timestamp) {
+        if (keyID >= entryIDs.length) {
+            int previousLength = entryIDs.length;
+            entryIDs = Arrays.copyOf(entryIDs, Math.max(keyID + 1, previousLength * 2));
+            Arrays.fill(entryIDs, previousLength, entryIDs.length, -1);
+        }
+
+        // Create entry if necessary
+        int id = entryIDs[keyID];
+        if (id == -1) {
+            id = log.start(LogKeyRegistry.getKey(keyID), value.type.getWPILOGType());
+            entryIDs[keyID] = id;
+        }
+
+        if (sink != null) sink.recordWrite(value);
+
+        switch (value.type) {
+            case Raw:
+                log.appendRaw(id, value.getRaw(), timestamp);
+                break;
+            case Boolean:
+                log.appendBoolean(id, value.getBoolean(), timestamp);
+                break;
+            case BooleanArray:
+                log.appendBooleanArray(id, value.getBooleanArray(), timestamp);
+                break;
+            case Integer:
+                log.appendInteger(id, value.getInteger(), timestamp);
+                break;
+            case IntegerArray:
+                log.appendIntegerArray(id, value.getIntegerArray(), timestamp);
+                break;
+            case Float:
+                log.appendFloat(id, value.getFloat(), timestamp);
+                break;
+            case FloatArray:
+                log.appendFloatArray(id, value.getFloatArray(), timestamp);
+                break;
+            case Double:
+                log.appendDouble(id, value.getDouble(), timestamp);
+                break;
+            case DoubleArray:
+                log.appendDoubleArray(id, value.getDoubleArray(), timestamp);
+                break;
+            case String:
+                log.appendString(id, value.getString(), timestamp);
+                break;
+            case StringArray:
+                log.appendStringArray(id, value.getStringArray(), timestamp);
+                break;
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package frc.lib.logging;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the last value written for each key so that writers can skip values that have not changed. Every
+ * keyframe interval all known values are written again, so a log can be read from any point without losing state.
+ */
+class DeltaFilter {
+    private final int keyframeInterval;
+
+    // Indexed by key id, null for keys that have not been written
+    private LogValue[] lastValues = new LogValue[64];
+
+    // Indexed by key id, the count of cycles started when each key last changed
+    private long[] changedCycles = new long[64];
+
+    private int cycle = 0;
+
+    // Unlike the cycle, never reset by keyframes
+    private long cyclesStarted = 0;
+
+    /**
+     * @param keyframeInterval The number of cycles between keyframes, or 1 to write every value every cycle.
+     */
+    DeltaFilter(int keyframeInterval) {
+        this.keyframeInterval = Math.max(keyframeInterval, 1);
+    }
+
+    /**
+     * Advances to the next cycle.
+     *
+     * @return If this cycle is a keyframe, in which case the caller should write every value returned by
+     * {@link #getLastValue(int)} rather than only the changed ones.
+     */
+    boolean startCycle() {
+        cyclesStarted++;
+        return cycle++ % keyframeInterval == 0;
+    }
+
+    /**
+     * Makes the next cycle a keyframe, such as when starting a new file. Later keyframes follow from it.
+     */
+    void forceKeyframe() {
+        cycle = 0;
+    }
+
+    /**
+     * Records a value for a key id.
+     *
+     * @return If the value differs from the last value recorded for the key.
+     */
+    boolean update(int id, LogValue value) {
+        if (id >= lastValues.length) {
+            lastValues = Arrays.copyOf(lastValues, Math.max(id + 1, lastValues.length * 2));
+            changedCycles = Arrays.copyOf(changedCycles, lastValues.length);
+        }
+
+        LogValue lastValue = lastValues[id];
+
+        if (lastValue == null) {
+            lastValue = new LogValue();
+            lastValues[id] = lastValue;
+        } else if (lastValue.equals(value)) {
+            return false;
+        }
+
+        lastValue.setFrom(value);
+        changedCycles[id] = cyclesStarted;
+        return true;
+    }
+
+    /**
+     * @return If the value of a key id changed in the current cycle, in which case its own timestamp is current.
+     */
+    boolean isChanged(int id) {
+        return lastValues[id] != null && changedCycles[id] == cyclesStarted;
+    }
+
+    /**
+     * @return One more than the largest key id that may have a value.
+     */
+    int getIdLimit() {
+        return lastValues.length;
+    }
+
+    /**
+     * @return The last value recorded for a key id, or null if there is none.
+     */
+    LogValue getLastValue(int id) {
+        return lastValues[id];
+    }
+}
@@ -0,0 +1,84 @@
+package frc.lib.logging;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Logs the driver station's mode and joysticks under the same keys and types as {@link DriverStation#startDataLog},
+ * so {@link LogReplay} reads them the same way. WPILib's driver station log can only be started once and would stay
+ * in the first segment of a {@link RotatingDataLog}, while these values are written to every segment, and to the
+ * logs of simulated and replayed runs. They are not sent to NetworkTables.
+ */
+class DriverStationLogger {
+    private final LogHandle enabledHandle = new LogHandle("DS:enabled");
+    private final LogHandle autonomousHandle = new LogHandle("DS:autonomous");
+    private final LogHandle testHandle = new LogHandle("DS:test");
+    private final LogHandle estopHandle = new LogHandle("DS:estop");
+    private final LogHandle fmsHandle = new LogHandle("DS:fms");
+    private final LogHandle dsHandle = new LogHandle("DS:ds");
+
+    private final LogHandle[] axesHandles = new LogHandle[DriverStation.kJoystickPorts];
+    private final LogHandle[] buttonsHandles = new LogHandle[DriverStation.kJoystickPorts];
+    private final LogHandle[] povsHandles = new LogHandle[DriverStation.kJoystickPorts];
+
+    // Reused between loops, and only reallocated when a joystick's layout changes
+    private final float[][] axes = new float[DriverStation.kJoystickPorts][0];
+    private final boolean[][] buttons = new boolean[DriverStation.kJoystickPorts][0];
+    private final long[][] povs = new long[DriverStation.kJoystickPorts][0];
+
+    DriverStationLogger() {
+        for (int stick = 0; stick < DriverStation.kJoystickPorts; stick++) {
+            String prefix = "DS:joystick" + stick + "/";
+
+            axesHandles[stick] = new LogHandle(prefix + "axes");
+            buttonsHandles[stick] = new LogHandle(prefix + "buttons");
+            povsHandles[stick] = new LogHandle(prefix + "povs");
+        }
+    }
+
+    /**
+     * Logs the driver station data of the current loop. The data only changes when the robot loop refreshes it, so
+     * it is the same data the loop ran with.
+     */
+    void log() {
+        put(enabledHandle).setBoolean(DriverStation.isEnabled());
+        put(autonomousHandle).setBoolean(DriverStation.isAutonomous());
+        put(testHandle).setBoolean(DriverStation.isTest());
+        put(estopHandle).setBoolean(DriverStation.isEStopped());
+        put(fmsHandle).setBoolean(DriverStation.isFMSAttached());
+        put(dsHandle).setBoolean(DriverStation.isDSAttached());
+
+        for (int stick = 0; stick < DriverStation.kJoystickPorts; stick++) {
+            int axisCount = DriverStation.getStickAxisCount(stick);
+            if (axes[stick].length != axisCount) axes[stick] = new float[axisCount];
+
+            for (int axis = 0; axis < axisCount; axis++) {
+                axes[stick][axis] = (float) DriverStation.getStickAxis(stick, axis);
+            }
+
+            int buttonCount = DriverStation.getStickButtonCount(stick);
+            if (buttons[stick].length != buttonCount) buttons[stick] = new boolean[buttonCount];
+
+            int buttonBits = DriverStation.getStickButtons(stick);
+            for (int button = 0; button < buttonCount; button++) {
+                buttons[stick][button] = button < 32 && (buttonBits & (1 << button)) != 0;
+            }
+
+            int povCount = DriverStation.getStickPOVCount(stick);
+            if (povs[stick].length != povCount) povs[stick] = new long[povCount];
+
+            for (int pov = 0; pov < povCount; pov++) {
+                povs[stick][pov] = DriverStation.getStickPOV(stick, pov);
+            }
+
+            put(axesHandles[stick]).setFloatArray(axes[stick]);
+            put(buttonsHandles[stick]).setBooleanArray(buttons[stick]);
+            put(povsHandles[stick]).setIntegerArray(povs[stick]);
+        }
+    }
+
+    private static LogValue put(LogHandle handle) {
+        LogValue slot = handle.put();
+        slot.sendToNT = false;
+        return slot;
+    }
+}
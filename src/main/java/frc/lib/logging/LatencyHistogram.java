@@ -0,0 +1,85 @@
+package frc.lib.logging;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size histogram of durations for computing percentiles without storing samples or allocating. Buckets are
+ * log-linear: each power of two is split into 16 buckets, so percentiles are accurate to about 6% across any range.
+ * Not thread safe, a histogram should only be recorded and read by a single thread.
+ */
+public class LatencyHistogram {
+    private static final int subBucketBits = 4;
+    private static final int subBucketCount = 1 << subBucketBits;
+
+    private final long[] counts = new long[subBucketCount + (63 - subBucketBits) * subBucketCount];
+
+    private long count = 0;
+    private long max = 0;
+    private long sum = 0;
+
+    private static int bucketOf(long value) {
+        if (value < subBucketCount) return (int) Math.max(value, 0);
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - subBucketBits)) & (subBucketCount - 1);
+
+        return subBucketCount + (exponent - subBucketBits) * subBucketCount + subBucket;
+    }
+
+    /**
+     * @return The largest value that falls in a bucket.
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < subBucketCount) return bucket;
+
+        int exponent = (bucket - subBucketCount) / subBucketCount + subBucketBits;
+        long subBucket = (bucket - subBucketCount) % subBucketCount;
+        long lowerBound = (1L << exponent) + (subBucket << (exponent - subBucketBits));
+
+        return lowerBound + (1L << (exponent - subBucketBits)) - 1;
+    }
+
+    public void record(long value) {
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * @param percentile The percentile from 0 to 100.
+     * @return An upper bound of the value at the percentile, or 0 if nothing has been recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) return 0;
+
+        long target = Math.max((long) Math.ceil(count * percentile / 100.0), 1);
+        long seen = 0;
+
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= target) return Math.min(upperBoundOf(bucket), max);
+        }
+
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+        sum = 0;
+    }
+}
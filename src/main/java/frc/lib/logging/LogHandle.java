@@ -0,0 +1,242 @@
+package frc.lib.logging;
+
+import edu.wpi.first.hal.HALUtil;
+
+/**
+ * A pre-registered key that writes directly into the current log table. Handles should be obtained once (for
+ * example as a field) and then set every loop, which avoids hashing the key and boxing the value on every call.
+ */
+public class LogHandle {
+    protected final int id;
+    private final String key;
+
+    LogHandle(String key) {
+        this.key = key;
+        this.id = LogKeyRegistry.register(key);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Stamps each value with the time it is set, instead of the time the loop's table is sent. Values set early in
+     * the loop are otherwise recorded up to a loop late. Costs one FPGA time read per value.
+     */
+    public void setCaptureTimestamps(boolean captureTimestamps) {
+        Logger.setCaptureTimestamps(id, captureTimestamps);
+    }
+
+    /**
+     * Returns the slot for this key in the current log table.
+     */
+    LogValue put() {
+        return put(Logger.isCapturingTimestamps(id) ? HALUtil.getFPGATime() : 0);
+    }
+
+    /**
+     * Returns the slot for this key in the current log table, stamped with a capture time in microseconds (0 to
+     * use the table's time).
+     */
+    LogValue put(long timestamp) {
+        LogValue slot = Logger.put(id);
+        slot.sendToNT = true;
+        slot.timestamp = timestamp;
+        return slot;
+    }
+
+    public static class RawHandle extends LogHandle {
+        RawHandle(String key) {
+            super(key);
+        }
+
+        public void set(byte[] value) {
+            put().setRaw(value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(byte[] value, long timestamp) {
+            put(timestamp).setRaw(value);
+        }
+    }
+
+    public static class BooleanHandle extends LogHandle {
+        BooleanHandle(String key) {
+            super(key);
+        }
+
+        public void set(boolean value) {
+            put().setBoolean(value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(boolean value, long timestamp) {
+            put(timestamp).setBoolean(value);
+        }
+    }
+
+    public static class BooleanArrayHandle extends LogHandle {
+        BooleanArrayHandle(String key) {
+            super(key);
+        }
+
+        public void set(boolean[] value) {
+            put().setBooleanArray(value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(boolean[] value, long timestamp) {
+            put(timestamp).setBooleanArray(value);
+        }
+    }
+
+    public static class IntegerHandle extends LogHandle {
+        IntegerHandle(String key) {
+            super(key);
+        }
+
+        public void set(long value) {
+            put().setInteger(value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(long value, long timestamp) {
+            put(timestamp).setInteger(value);
+        }
+    }
+
+    public static class IntegerArrayHandle extends LogHandle {
+        IntegerArrayHandle(String key) {
+            super(key);
+        }
+
+        public void set(long[] value) {
+            put().setIntegerArray(value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(long[] value, long timestamp) {
+            put(timestamp).setIntegerArray(value);
+        }
+    }
+
+    public static class DoubleHandle extends LogHandle {
+        DoubleHandle(String key) {
+            super(key);
+        }
+
+        public void set(double value) {
+            put().setDouble(value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(double value, long timestamp) {
+            put(timestamp).setDouble(value);
+        }
+    }
+
+    public static class DoubleArrayHandle extends LogHandle {
+        DoubleArrayHandle(String key) {
+            super(key);
+        }
+
+        public void set(double[] value) {
+            put().setDoubleArray(value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(double[] value, long timestamp) {
+            put(timestamp).setDoubleArray(value);
+        }
+    }
+
+    public static class StringHandle extends LogHandle {
+        StringHandle(String key) {
+            super(key);
+        }
+
+        public void set(String value) {
+            put().setString(value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(String value, long timestamp) {
+            put(timestamp).setString(value);
+        }
+    }
+
+    public static class StringArrayHandle extends LogHandle {
+        StringArrayHandle(String key) {
+            super(key);
+        }
+
+        public void set(String[] value) {
+            put().setStringArray(value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(String[] value, long timestamp) {
+            put(timestamp).setStringArray(value);
+        }
+    }
+
+    /**
+     * Logs a struct type in its double array layout, for keys that dashboards read as double arrays.
+     */
+    public static class StructDoublesHandle<T> extends LogHandle {
+        private final LogStruct<T> struct;
+
+        StructDoublesHandle(String key, LogStruct<T> struct) {
+            super(key);
+            this.struct = struct;
+        }
+
+        public void set(T value) {
+            struct.packDoubles(put().setDoubleArray(struct.doubleCount), 0, value);
+        }
+
+        /**
+         * Sets the value with the time it was captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(T value, long timestamp) {
+            struct.packDoubles(put(timestamp).setDoubleArray(struct.doubleCount), 0, value);
+        }
+
+        public void set(T[] values) {
+            pack(put(), values);
+        }
+
+        /**
+         * Sets the values with the time they were captured in microseconds, such as the time of a sensor reading.
+         */
+        public void set(T[] values, long timestamp) {
+            pack(put(timestamp), values);
+        }
+
+        private void pack(LogValue slot, T[] values) {
+            double[] buffer = slot.setDoubleArray(struct.doubleCount * values.length);
+
+            for (int i = 0; i < values.length; i++) {
+                struct.packDoubles(buffer, i * struct.doubleCount, values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package frc.lib.logging;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns every log key a dense integer id the first time it is used, so that the hot path can address values by
+ * index instead of hashing strings.
+ */
+final class LogKeyRegistry {
+    private static final Map<String, Integer> ids = new HashMap<>();
+
+    // Published through a volatile write so the logging thread can look up keys without locking
+    private static volatile String[] keys = new String[64];
+
+    private static int size = 0;
+
+    private LogKeyRegistry() {}
+
+    /**
+     * Returns the id of a key, registering it if it has not been seen before.
+     */
+    static synchronized int register(String key) {
+        Integer id = ids.get(key);
+        if (id != null) return id;
+
+        String[] currentKeys = keys;
+        if (size == currentKeys.length) currentKeys = Arrays.copyOf(currentKeys, size * 2);
+
+        currentKeys[size] = key;
+        ids.put(key, size);
+        keys = currentKeys;
+
+        return size++;
+    }
+
+    static String getKey(int id) {
+        return keys[id];
+    }
+
+    static synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,91 @@
+package frc.lib.logging;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Resolves the priority of each key id from the priorities set by prefix. Priorities and latency bounds are set
+ * from the main thread, and each writer resolves them on its own thread with its own instance, which caches the
+ * priority of each key id until another priority is set.
+ */
+class LogPriorities {
+    private static final Map<String, LogPriority> priorities = new ConcurrentHashMap<>();
+    private static volatile int version = 0;
+
+    // Indexed by priority, in microseconds
+    private static final AtomicLongArray latencyBounds = new AtomicLongArray(LogPriority.values().length);
+
+    private static final LogPriority[] allPriorities = LogPriority.values();
+
+    static {
+        for (LogPriority priority : allPriorities) {
+            setLatencyBound(priority, priority.defaultLatencyBound);
+        }
+    }
+
+    // Indexed by key id, null for keys that have not been resolved
+    private LogPriority[] resolvedPriorities = new LogPriority[64];
+    private int resolvedVersion = 0;
+
+    /**
+     * Sets the priority of every key starting with the prefix. When several prefixes match a key, the longest one
+     * is used.
+     */
+    static void setPriority(String prefix, LogPriority priority) {
+        priorities.put(prefix, priority);
+        version++;
+    }
+
+    static void setLatencyBound(LogPriority priority, double seconds) {
+        latencyBounds.set(priority.ordinal(), Double.isInfinite(seconds) ? Long.MAX_VALUE : (long) (seconds * 1e6));
+    }
+
+    /**
+     * @param age How long a table has waited to be written in microseconds.
+     * @return The lowest priority whose latency bound the table is still within. Critical values are always written.
+     */
+    static LogPriority getLowestWritten(long age) {
+        for (int i = allPriorities.length - 1; i > 0; i--) {
+            if (age <= latencyBounds.get(i)) return allPriorities[i];
+        }
+
+        return LogPriority.Critical;
+    }
+
+    LogPriority get(int keyID) {
+        int currentVersion = version;
+        if (resolvedVersion != currentVersion) {
+            Arrays.fill(resolvedPriorities, null);
+            resolvedVersion = currentVersion;
+        }
+
+        if (keyID >= resolvedPriorities.length) {
+            resolvedPriorities = Arrays.copyOf(resolvedPriorities, Math.max(keyID + 1, resolvedPriorities.length * 2));
+        }
+
+        LogPriority priority = resolvedPriorities[keyID];
+        if (priority == null) {
+            priority = find(LogKeyRegistry.getKey(keyID));
+            resolvedPriorities[keyID] = priority;
+        }
+
+        return priority;
+    }
+
+    private static LogPriority find(String key) {
+        LogPriority priority = LogPriority.Normal;
+        int matchLength = -1;
+
+        for (Map.Entry<String, LogPriority> entry : priorities.entrySet()) {
+            String prefix = entry.getKey();
+            if (key.startsWith(prefix) && prefix.length() > matchLength) {
+                priority = entry.getValue();
+                matchLength = prefix.length();
+            }
+        }
+
+        return priority;
+    }
+}
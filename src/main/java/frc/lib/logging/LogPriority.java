@@ -0,0 +1,29 @@
+package frc.lib.logging;
+
+/**
+ * How important a key's values are when a writer falls behind. Each priority has a latency bound: once a table has
+ * waited longer than a priority's bound, that priority's values in it are shed rather than written, so the writer
+ * catches up while more important values are still written. Set per key or prefix with
+ * {@link Logger#setPriority(String, LogPriority)}.
+ */
+public enum LogPriority {
+    /** Never shed, such as replay inputs and the pose. */
+    Critical(Double.POSITIVE_INFINITY),
+    /** The default for keys without a priority. */
+    Normal(1.0),
+    /** Shed first, such as large or noisy diagnostic arrays. */
+    Debug(0.25);
+
+    final double defaultLatencyBound;
+
+    LogPriority(double defaultLatencyBound) {
+        this.defaultLatencyBound = defaultLatencyBound;
+    }
+
+    /**
+     * @return If values of this priority are written when values below the given priority are being shed.
+     */
+    boolean isWrittenAt(LogPriority lowestWritten) {
+        return ordinal() <= lowestWritten.ordinal();
+    }
+}
@@ -0,0 +1,227 @@
+package frc.lib.logging;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.lib.logging.LogValue.LoggableType;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the values recorded in a wpilog back to the robot code one loop at a time. While replay is active,
+ * {@link LoggedReceiver} reads from the log instead of NetworkTables and the recorded driver station state is
+ * applied to the simulated driver station.
+ */
+public class LogReplay {
+    /** Logged once per loop by {@link Logger#update()}, which marks the end of each recorded loop. */
+    public static final String cycleKey = "/Logging/Cycle";
+
+    private static boolean isActive = false;
+
+    // Every value record in the log, sorted by timestamp
+    private static long[] timestamps;
+    private static String[] keys;
+    private static LogValue[] values;
+    private static int recordCount = 0;
+
+    // Timestamps of every recorded loop
+    private static long[] cycleTimestamps;
+    private static int cycleCount = 0;
+
+    private static int nextRecord = 0;
+    private static int nextCycle = 0;
+
+    // The latest value of every key as of the current loop
+    private static final Map<String, LogValue> currentValues = new HashMap<>();
+
+    private LogReplay() {}
+
+    /**
+     * Loads a wpilog, or a segment compressed by {@link RotatingDataLog}, and enables replay. Loops are then stepped
+     * through with {@link #advanceCycle()}.
+     */
+    public static void start(String path) throws IOException {
+        DataLogReader reader = RotatingDataLog.isCompressed(path)
+                ? new DataLogReader(RotatingDataLog.decompress(path))
+                : new DataLogReader(path);
+        if (!reader.isValid()) throw new IOException("Not a valid wpilog: " + path);
+
+        Map<Integer, String> entryNames = new HashMap<>();
+        Map<Integer, LoggableType> entryTypes = new HashMap<>();
+
+        List<Record> records = new ArrayList<>();
+        List<Long> cycles = new ArrayList<>();
+
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                var startData = record.getStartData();
+                LoggableType type = LoggableType.fromWPILOGType(startData.type);
+
+                // Types the logger does not write, such as structs from other tools, are replayed as raw bytes
+                if (type == null) type = LoggableType.Raw;
+
+                entryNames.put(startData.entry, startData.name);
+                entryTypes.put(startData.entry, type);
+            } else if (!record.isControl()) {
+                String key = entryNames.get(record.getEntry());
+                if (key == null) continue;
+
+                if (key.equals(cycleKey)) cycles.add(record.getTimestamp());
+
+                records.add(new Record(record.getTimestamp(), key, read(record, entryTypes.get(record.getEntry()))));
+            }
+        }
+
+        // Values are dated by the loop that logged them, or by a capture time within that loop, so sorting by time
+        // groups them by loop. The sort is stable, which keeps several updates to a key within a loop in order
+        records.sort((a, b) -> Long.compare(a.timestamp, b.timestamp));
+        cycles.sort(Long::compare);
+
+        recordCount = records.size();
+        timestamps = new long[recordCount];
+        keys = new String[recordCount];
+        values = new LogValue[recordCount];
+
+        for (int i = 0; i < recordCount; i++) {
+            timestamps[i] = records.get(i).timestamp;
+            keys[i] = records.get(i).key;
+            values[i] = records.get(i).value;
+        }
+
+        cycleCount = cycles.size();
+        cycleTimestamps = cycles.stream().mapToLong(Long::longValue).toArray();
+
+        nextRecord = 0;
+        nextCycle = 0;
+        currentValues.clear();
+
+        isActive = true;
+    }
+
+    public static boolean isActive() {
+        return isActive;
+    }
+
+    /**
+     * Applies every value recorded up to the end of the next loop.
+     *
+     * @return If there was another loop, false once the end of the log is reached.
+     */
+    public static boolean advanceCycle() {
+        if (nextCycle >= cycleCount) return false;
+
+        long cycleTimestamp = cycleTimestamps[nextCycle++];
+
+        while (nextRecord < recordCount && timestamps[nextRecord] <= cycleTimestamp) {
+            currentValues.put(keys[nextRecord], values[nextRecord]);
+            nextRecord++;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The timestamp of the current loop in microseconds.
+     */
+    public static long getTimestamp() {
+        return nextCycle > 0 ? cycleTimestamps[nextCycle - 1] : 0;
+    }
+
+    /**
+     * @return The number of loops in the log.
+     */
+    public static int getCycleCount() {
+        return cycleCount;
+    }
+
+    /**
+     * @return The latest value of a key as of the current loop, or null if it has not been recorded yet.
+     */
+    public static LogValue getValue(String key) {
+        return currentValues.get(key);
+    }
+
+    /**
+     * Sets the simulated driver station to the recorded mode and joystick values of the current loop.
+     */
+    public static void applyDriverStation() {
+        DriverStationSim.setDsAttached(getBoolean("DS:ds", true));
+        DriverStationSim.setFmsAttached(getBoolean("DS:fms", false));
+        DriverStationSim.setEnabled(getBoolean("DS:enabled", false));
+        DriverStationSim.setAutonomous(getBoolean("DS:autonomous", false));
+        DriverStationSim.setTest(getBoolean("DS:test", false));
+        DriverStationSim.setEStop(getBoolean("DS:estop", false));
+
+        for (int stick = 0; stick < 6; stick++) {
+            String prefix = "DS:joystick" + stick + "/";
+
+            LogValue axes = getValue(prefix + "axes");
+            if (axes != null) {
+                float[] axisValues = axes.getFloatArray();
+                DriverStationSim.setJoystickAxisCount(stick, axisValues.length);
+                for (int axis = 0; axis < axisValues.length; axis++) {
+                    DriverStationSim.setJoystickAxis(stick, axis, axisValues[axis]);
+                }
+            }
+
+            LogValue buttons = getValue(prefix + "buttons");
+            if (buttons != null) {
+                boolean[] buttonValues = buttons.getBooleanArray();
+                int buttonBits = 0;
+                for (int button = 0; button < buttonValues.length && button < 32; button++) {
+                    if (buttonValues[button]) buttonBits |= 1 << button;
+                }
+                DriverStationSim.setJoystickButtonCount(stick, buttonValues.length);
+                DriverStationSim.setJoystickButtons(stick, buttonBits);
+            }
+
+            LogValue povs = getValue(prefix + "povs");
+            if (povs != null) {
+                long[] povValues = povs.getIntegerArray();
+                DriverStationSim.setJoystickPOVCount(stick, povValues.length);
+                for (int pov = 0; pov < povValues.length; pov++) {
+                    DriverStationSim.setJoystickPOV(stick, pov, (int) povValues[pov]);
+                }
+            }
+        }
+
+        DriverStationSim.notifyNewData();
+    }
+
+    private static boolean getBoolean(String key, boolean defaultValue) {
+        LogValue value = getValue(key);
+        return value != null ? value.getBoolean(defaultValue) : defaultValue;
+    }
+
+    private static LogValue read(DataLogRecord record, LoggableType type) {
+        switch (type) {
+            case Boolean:
+                return new LogValue(record.getBoolean());
+            case Integer:
+                return new LogValue(record.getInteger());
+            case Float:
+                return new LogValue(record.getFloat());
+            case Double:
+                return new LogValue(record.getDouble());
+            case String:
+                return new LogValue(record.getString());
+            case BooleanArray:
+                return new LogValue(record.getBooleanArray());
+            case IntegerArray:
+                return new LogValue(record.getIntegerArray());
+            case FloatArray:
+                return new LogValue(record.getFloatArray());
+            case DoubleArray:
+                return new LogValue(record.getDoubleArray());
+            case StringArray:
+                return new LogValue(record.getStringArray());
+            default:
+                return new LogValue(record.getRaw());
+        }
+    }
+
+    private static record Record(long timestamp, String key, LogValue value) {}
+}
@@ -0,0 +1,98 @@
+package frc.lib.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free single producer, single consumer ring buffer. The producer may also remove the oldest element to make
+ * room, so the read position is claimed with a compare-and-set rather than a plain write.
+ */
+class LogRingBuffer<T> {
+    private final Object[] buffer;
+    private final int mask;
+
+    // Position of the next element to read, only ever increases
+    private final AtomicLong head = new AtomicLong();
+
+    // Position of the next element to write, only written by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile Thread waitingConsumer;
+
+    /**
+     * @param capacity The maximum number of elements, must be a power of two.
+     */
+    LogRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two");
+        }
+
+        buffer = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds an element if there is space. Must only be called by the producer.
+     *
+     * @return If the element was added.
+     */
+    boolean offer(T element) {
+        long currentTail = tail.get();
+        if (currentTail - head.get() >= buffer.length) return false;
+
+        buffer[(int) (currentTail & mask)] = element;
+        tail.set(currentTail + 1);
+
+        // Wake the consumer if it is waiting for data
+        Thread consumer = waitingConsumer;
+        if (consumer != null) LockSupport.unpark(consumer);
+
+        return true;
+    }
+
+    /**
+     * Removes the oldest element. Safe to call from both the producer and the consumer.
+     *
+     * @return The oldest element, or null if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        while (true) {
+            long currentHead = head.get();
+            if (currentHead >= tail.get()) return null;
+
+            // The slot can only be overwritten after the head moves past it, in which case the claim below fails
+            T element = (T) buffer[(int) (currentHead & mask)];
+            if (head.compareAndSet(currentHead, currentHead + 1)) return element;
+        }
+    }
+
+    /**
+     * Waits for and removes the oldest element. Must only be called by the consumer.
+     */
+    T take() throws InterruptedException {
+        while (true) {
+            T element = poll();
+            if (element != null) return element;
+
+            waitingConsumer = Thread.currentThread();
+
+            // Check again in case an element was added before the consumer was registered
+            element = poll();
+            if (element == null) LockSupport.parkNanos(this, 5_000_000);
+
+            waitingConsumer = null;
+
+            if (element != null) return element;
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+}
@@ -0,0 +1,70 @@
+package frc.lib.logging;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Packs a composite type into the double array layout that dashboards read, directly into a slot's reused buffer so
+ * logging it does not allocate. Arrays of values are packed one after another.
+ */
+public abstract class LogStruct<T> {
+    /** The length of a single value in the double array layout. */
+    public final int doubleCount;
+
+    protected LogStruct(int doubleCount) {
+        this.doubleCount = doubleCount;
+    }
+
+    /**
+     * Writes a value into a double array starting at the offset, in the layout dashboards read.
+     */
+    public abstract void packDoubles(double[] buffer, int offset, T value);
+
+    public static final LogStruct<Pose2d> pose2d = new LogStruct<>(3) {
+        public void packDoubles(double[] buffer, int offset, Pose2d value) {
+            buffer[offset] = value.getX();
+            buffer[offset + 1] = value.getY();
+            buffer[offset + 2] = value.getRotation().getRadians();
+        }
+    };
+
+    public static final LogStruct<Translation2d> translation2d = new LogStruct<>(2) {
+        public void packDoubles(double[] buffer, int offset, Translation2d value) {
+            buffer[offset] = value.getX();
+            buffer[offset + 1] = value.getY();
+        }
+    };
+
+    public static final LogStruct<Pose3d> pose3d = new LogStruct<>(7) {
+        public void packDoubles(double[] buffer, int offset, Pose3d value) {
+            var rotation = value.getRotation().getQuaternion();
+
+            buffer[offset] = value.getX();
+            buffer[offset + 1] = value.getY();
+            buffer[offset + 2] = value.getZ();
+            buffer[offset + 3] = rotation.getW();
+            buffer[offset + 4] = rotation.getX();
+            buffer[offset + 5] = rotation.getY();
+            buffer[offset + 6] = rotation.getZ();
+        }
+    };
+
+    public static final LogStruct<ChassisSpeeds> chassisSpeeds = new LogStruct<>(3) {
+        public void packDoubles(double[] buffer, int offset, ChassisSpeeds value) {
+            buffer[offset] = value.vxMetersPerSecond;
+            buffer[offset + 1] = value.vyMetersPerSecond;
+            buffer[offset + 2] = value.omegaRadiansPerSecond;
+        }
+    };
+
+    public static final LogStruct<SwerveModuleState> swerveModuleState = new LogStruct<>(2) {
+        // Dashboards read module states as angle then speed
+        public void packDoubles(double[] buffer, int offset, SwerveModuleState value) {
+            buffer[offset] = value.angle.getRadians();
+            buffer[offset + 1] = value.speedMetersPerSecond;
+        }
+    };
+}
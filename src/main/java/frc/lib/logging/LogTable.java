@@ -0,0 +1,144 @@
+package frc.lib.logging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The set of values logged during a single robot loop. Values are stored in slots addressed by key id, and each
+ * slot holds a mutable {@link LogValue} that is overwritten in place when a key is logged more than once per loop.
+ */
+public class LogTable {
+    private int[] ids = new int[64];
+    private LogValue[] values = new LogValue[64];
+    private int size = 0;
+
+    // Index of each key id in this table plus one, or zero if the key has not been logged
+    private int[] positions = new int[64];
+
+    private long timestamp;
+
+    // Once a table has been held back by a full queue, overwriting a key loses the previous value
+    private boolean isCoalescing = false;
+    private int coalescedKeys = 0;
+
+    // The number of logging threads that have yet to finish with this table
+    private final AtomicInteger references = new AtomicInteger();
+
+    /**
+     * Returns the slot for a key id, adding it to the table if necessary.
+     */
+    LogValue put(int id) {
+        if (id >= positions.length) positions = Arrays.copyOf(positions, Math.max(id + 1, positions.length * 2));
+
+        int position = positions[id];
+        if (position != 0) {
+            if (isCoalescing) coalescedKeys++;
+
+            return values[position - 1];
+        }
+
+        return append(id);
+    }
+
+    /**
+     * Adds another slot for a key id even if the key is already in the table, so that several values of a key can
+     * be kept from a single loop. Later calls to {@link #put(int)} return the newest slot.
+     */
+    LogValue append(int id) {
+        if (id >= positions.length) positions = Arrays.copyOf(positions, Math.max(id + 1, positions.length * 2));
+
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        if (values[size] == null) values[size] = new LogValue();
+
+        ids[size] = id;
+        positions[id] = ++size;
+
+        return values[size - 1];
+    }
+
+    /**
+     * @return The number of keys logged in this table.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public String getKey(int index) {
+        return LogKeyRegistry.getKey(ids[index]);
+    }
+
+    public LogValue getValue(int index) {
+        return values[index];
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Copies every value from another table into this one, overwriting values for keys present in both.
+     */
+    void putAll(LogTable other) {
+        for (int i = 0; i < other.size; i++) {
+            put(other.ids[i]).setFrom(other.values[i]);
+        }
+
+        timestamp = other.timestamp;
+    }
+
+    /**
+     * Sets the number of logging threads that will read this table before it can be recycled.
+     */
+    void setReferences(int count) {
+        references.set(count);
+    }
+
+    /**
+     * Marks that one logging thread is finished with this table.
+     *
+     * @return If no threads are still using the table.
+     */
+    boolean release() {
+        return references.decrementAndGet() <= 0;
+    }
+
+    /**
+     * Marks that this table was not queued and will continue to collect values from later loops.
+     */
+    void startCoalescing() {
+        isCoalescing = true;
+    }
+
+    /**
+     * @return The number of values that were overwritten while this table was coalescing.
+     */
+    int getCoalescedKeys() {
+        return coalescedKeys;
+    }
+
+    /**
+     * Empties the table while keeping its slots (and their array buffers) for reuse.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[ids[i]] = 0;
+        }
+
+        size = 0;
+        timestamp = 0;
+        isCoalescing = false;
+        coalescedKeys = 0;
+    }
+}
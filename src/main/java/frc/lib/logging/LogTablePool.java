@@ -0,0 +1,75 @@
+package frc.lib.logging;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recycles log tables between the main thread and the logging thread. The main thread acquires a table to fill,
+ * and the logging thread releases it once every writer is finished, so steady state logging allocates nothing.
+ */
+class LogTablePool {
+    private static final int initialTables = 3;
+
+    private final BlockingQueue<LogTable> freeTables;
+
+    private final AtomicInteger tablesInFlight = new AtomicInteger();
+    private int tablesAllocated = 0;
+
+    /**
+     * @param maximumTables The most tables that can be in use at once (the queue capacities plus those being
+     * filled and written).
+     */
+    LogTablePool(int maximumTables) {
+        freeTables = new ArrayBlockingQueue<>(maximumTables);
+
+        for (int i = 0; i < initialTables; i++) {
+            freeTables.add(new LogTable());
+            tablesAllocated++;
+        }
+    }
+
+    /**
+     * Returns an empty table, only allocating a new one if every table is already in flight. Must only be called
+     * from the main thread.
+     */
+    LogTable acquire() {
+        LogTable table = freeTables.poll();
+
+        if (table == null) {
+            table = new LogTable();
+            tablesAllocated++;
+        }
+
+        tablesInFlight.incrementAndGet();
+        table.setReferences(1);
+
+        return table;
+    }
+
+    /**
+     * Releases one reference to a table, clearing it and returning it to the pool once every logging thread has
+     * finished with it.
+     */
+    void release(LogTable table) {
+        if (!table.release()) return;
+
+        table.clear();
+        tablesInFlight.decrementAndGet();
+        freeTables.offer(table);
+    }
+
+    /**
+     * @return The number of tables currently being filled, queued, or written.
+     */
+    int getTablesInFlight() {
+        return tablesInFlight.get();
+    }
+
+    /**
+     * @return The total number of tables that have been allocated by the pool.
+     */
+    int getTablesAllocated() {
+        return tablesAllocated;
+    }
+}
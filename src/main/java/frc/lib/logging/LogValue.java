@@ -7,11 +7,24 @@ import java.util.List;
 import java.util.Objects;
 
 public class LogValue {
-    public final LoggableType type;
-    private final Object value;
+    public LoggableType type;
+
+    // Primitive values are stored unboxed so that values can be rewritten without allocating
+    private boolean booleanValue;
+    private long integerValue;
+    private float floatValue;
+    private double doubleValue;
+    private Object value;
 
     public boolean sendToNT = true;
 
+    // When the value was captured in microseconds, or 0 to use the timestamp of the table it is logged in
+    public long timestamp = 0;
+
+    LogValue() {
+        type = LoggableType.Double;
+    }
+
     LogValue(byte[] value) {
         type = LoggableType.Raw;
         this.value = value;
@@ -19,22 +32,22 @@ public class LogValue {
 
     LogValue(boolean value) {
         type = LoggableType.Boolean;
-        this.value = value;
+        this.booleanValue = value;
     }
 
     LogValue(long value) {
         type = LoggableType.Integer;
-        this.value = value;
+        this.integerValue = value;
     }
 
     LogValue(float value) {
         type = LoggableType.Float;
-        this.value = value;
+        this.floatValue = value;
     }
 
     LogValue(double value) {
         type = LoggableType.Double;
-        this.value = value;
+        this.doubleValue = value;
     }
 
     LogValue(String value) {
@@ -71,6 +84,159 @@ public class LogValue {
         this.value = value;
     }
 
+    /* Setters - Overwrite the value in place */
+
+    // Arrays are copied into a buffer owned by this value (reused when the length matches), so callers are free
+    // to modify their array after logging it
+
+    void setRaw(byte[] value) {
+        byte[] buffer = value.length == lengthOf(LoggableType.Raw) ? (byte[]) this.value : new byte[value.length];
+        System.arraycopy(value, 0, buffer, 0, value.length);
+        set(LoggableType.Raw, buffer);
+    }
+
+    void setBoolean(boolean value) {
+        set(LoggableType.Boolean, null);
+        booleanValue = value;
+    }
+
+    void setInteger(long value) {
+        set(LoggableType.Integer, null);
+        integerValue = value;
+    }
+
+    void setFloat(float value) {
+        set(LoggableType.Float, null);
+        floatValue = value;
+    }
+
+    void setDouble(double value) {
+        set(LoggableType.Double, null);
+        doubleValue = value;
+    }
+
+    void setString(String value) {
+        set(LoggableType.String, value != null ? value : "");
+    }
+
+    void setBooleanArray(boolean[] value) {
+        boolean[] buffer = value.length == lengthOf(LoggableType.BooleanArray)
+                ? (boolean[]) this.value
+                : new boolean[value.length];
+        System.arraycopy(value, 0, buffer, 0, value.length);
+        set(LoggableType.BooleanArray, buffer);
+    }
+
+    void setIntegerArray(long[] value) {
+        long[] buffer =
+                value.length == lengthOf(LoggableType.IntegerArray) ? (long[]) this.value : new long[value.length];
+        System.arraycopy(value, 0, buffer, 0, value.length);
+        set(LoggableType.IntegerArray, buffer);
+    }
+
+    void setFloatArray(float[] value) {
+        float[] buffer =
+                value.length == lengthOf(LoggableType.FloatArray) ? (float[]) this.value : new float[value.length];
+        System.arraycopy(value, 0, buffer, 0, value.length);
+        set(LoggableType.FloatArray, buffer);
+    }
+
+    void setDoubleArray(double[] value) {
+        double[] buffer =
+                value.length == lengthOf(LoggableType.DoubleArray) ? (double[]) this.value : new double[value.length];
+        System.arraycopy(value, 0, buffer, 0, value.length);
+        set(LoggableType.DoubleArray, buffer);
+    }
+
+    /**
+     * Sets this to a double array and returns its buffer to be filled in place.
+     */
+    double[] setDoubleArray(int length) {
+        double[] buffer = length == lengthOf(LoggableType.DoubleArray) ? (double[]) this.value : new double[length];
+        set(LoggableType.DoubleArray, buffer);
+        return buffer;
+    }
+
+    void setStringArray(String[] value) {
+        String[] buffer =
+                value.length == lengthOf(LoggableType.StringArray) ? (String[]) this.value : new String[value.length];
+        System.arraycopy(value, 0, buffer, 0, value.length);
+        set(LoggableType.StringArray, buffer);
+    }
+
+    /**
+     * Overwrites this value with a copy of another value.
+     */
+    void setFrom(LogValue other) {
+        switch (other.type) {
+            case Raw:
+                setRaw(other.getRaw());
+                break;
+            case Boolean:
+                setBoolean(other.booleanValue);
+                break;
+            case Integer:
+                setInteger(other.integerValue);
+                break;
+            case Float:
+                setFloat(other.floatValue);
+                break;
+            case Double:
+                setDouble(other.doubleValue);
+                break;
+            case String:
+                setString(other.getString());
+                break;
+            case BooleanArray:
+                setBooleanArray(other.getBooleanArray());
+                break;
+            case IntegerArray:
+                setIntegerArray(other.getIntegerArray());
+                break;
+            case FloatArray:
+                setFloatArray(other.getFloatArray());
+                break;
+            case DoubleArray:
+                setDoubleArray(other.getDoubleArray());
+                break;
+            case StringArray:
+                setStringArray(other.getStringArray());
+                break;
+        }
+
+        sendToNT = other.sendToNT;
+        timestamp = other.timestamp;
+    }
+
+    private void set(LoggableType type, Object value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * Returns the length of the array currently stored, or -1 if this value does not hold an array of the given type.
+     */
+    private int lengthOf(LoggableType arrayType) {
+        if (type != arrayType || value == null) return -1;
+
+        switch (arrayType) {
+            case Raw:
+                return ((byte[]) value).length;
+            case BooleanArray:
+                return ((boolean[]) value).length;
+            case IntegerArray:
+                return ((long[]) value).length;
+            case FloatArray:
+                return ((float[]) value).length;
+            case DoubleArray:
+                return ((double[]) value).length;
+            case StringArray:
+                return ((String[]) value).length;
+            default:
+                return -1;
+        }
+    }
+
     public byte[] getRaw() {
         return getRaw(new byte[] {});
     }
@@ -120,19 +286,19 @@ public class LogValue {
     }
 
     public boolean getBoolean(boolean defaultValue) {
-        return type == LoggableType.Boolean ? (boolean) value : defaultValue;
+        return type == LoggableType.Boolean ? booleanValue : defaultValue;
     }
 
     public long getInteger(long defaultValue) {
-        return type == LoggableType.Integer ? (long) value : defaultValue;
+        return type == LoggableType.Integer ? integerValue : defaultValue;
     }
 
     public float getFloat(float defaultValue) {
-        return type == LoggableType.Float ? (float) value : defaultValue;
+        return type == LoggableType.Float ? floatValue : defaultValue;
     }
 
     public double getDouble(double defaultValue) {
-        return type == LoggableType.Double ? (double) value : defaultValue;
+        return type == LoggableType.Double ? doubleValue : defaultValue;
     }
 
     public String getString(String defaultValue) {
@@ -159,6 +325,43 @@ public class LogValue {
         return type == LoggableType.StringArray ? (String[]) value : defaultValue;
     }
 
+    /**
+     * Returns the size of this value's WPILOG payload in bytes. Strings are counted by length, which is exact for
+     * ASCII.
+     */
+    public int getSize() {
+        switch (type) {
+            case Raw:
+                return ((byte[]) value).length;
+            case Boolean:
+                return 1;
+            case Integer:
+            case Double:
+                return 8;
+            case Float:
+                return 4;
+            case String:
+                return ((String) value).length();
+            case BooleanArray:
+                return ((boolean[]) value).length;
+            case IntegerArray:
+                return ((long[]) value).length * 8;
+            case FloatArray:
+                return ((float[]) value).length * 4;
+            case DoubleArray:
+                return ((double[]) value).length * 8;
+            case StringArray:
+                // Array length followed by each string's length and bytes
+                int size = 4;
+                for (String string : (String[]) value) {
+                    size += 4 + string.length();
+                }
+                return size;
+            default:
+                return 0;
+        }
+    }
+
     public LogValue withoutNT() {
         sendToNT = false;
         return this;
@@ -173,9 +376,13 @@ public class LogValue {
                     case Raw:
                         return Arrays.equals(getRaw(), otherValue.getRaw());
                     case Boolean:
+                        return booleanValue == otherValue.booleanValue;
                     case Integer:
+                        return integerValue == otherValue.integerValue;
                     case Float:
+                        return Float.compare(floatValue, otherValue.floatValue) == 0;
                     case Double:
+                        return Double.compare(doubleValue, otherValue.doubleValue) == 0;
                     case String:
                         return value.equals(otherValue.value);
                     case BooleanArray:
@@ -196,7 +403,18 @@ public class LogValue {
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, value);
+        switch (type) {
+            case Boolean:
+                return Objects.hash(type, booleanValue);
+            case Integer:
+                return Objects.hash(type, integerValue);
+            case Float:
+                return Objects.hash(type, floatValue);
+            case Double:
+                return Objects.hash(type, doubleValue);
+            default:
+                return Objects.hash(type, value);
+        }
     }
 
     /**
@@ -0,0 +1,25 @@
+package frc.lib.logging;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field or no-argument method to be logged by a logger generated at compile time. For a class Foo with
+ * logged members, the annotation processor generates FooLogger in the same package with a handle for each member,
+ * and Foo calls {@code logger.log(this)} once per loop. Logged members must not be private, so private state is
+ * logged through a package-private getter annotated with @Logged.
+ *
+ * <p>Values are logged to "/[class name]/[name]", where the name defaults to the member's name. Supported types are
+ * primitives, strings, enums, primitive and string arrays, Rotation2d (as radians), Translation2d, Pose2d, Pose3d,
+ * ChassisSpeeds and SwerveModuleState arrays.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Logged {
+    /**
+     * @return The name of the key, or empty to use the member's name.
+     */
+    String value() default "";
+}
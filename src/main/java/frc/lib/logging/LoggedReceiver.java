@@ -3,111 +3,274 @@ package frc.lib.logging;
 import edu.wpi.first.networktables.*;
 import frc.lib.logging.LogValue.LoggableType;
 
+/**
+ * Reads a value from NetworkTables and logs it. The value is refreshed at most once per loop, and only when the
+ * topic has changed, so reading a receiver several times per loop is cheap and the getters do not allocate. Every
+ * update received since the last refresh is logged in the loop that read it, so updates between loops are kept and
+ * {@link LogReplay} serves them to the same loop. The time each update arrived is logged under
+ * {@link #arrivalKeyPrefix} followed by the key.
+ *
+ * <p>Array getters return the receiver's own buffer, which must not be modified.
+ */
 public class LoggedReceiver {
+    /** Prefixed to a receiver's key for the key of its updates' arrival times, in microseconds. */
+    public static final String arrivalKeyPrefix = "/Logging/Arrivals";
+
     private LoggableType type;
     private String key;
+    private final int id;
+    private final int arrivalId;
 
     private Subscriber subscriber;
 
+    // The most recent value, overwritten in place on each change
+    private final LogValue value = new LogValue();
+
+    private long lastChange = 0;
+    private long lastRefreshCycle = -1;
+    private boolean hasChanged = false;
+
     public LoggedReceiver(LoggableType type, String key) {
         this.type = type;
         this.key = key;
+        this.id = LogKeyRegistry.register(key);
+        this.arrivalId = LogKeyRegistry.register(arrivalKeyPrefix + key);
+
+        // Inputs are never shed, so a log can always be replayed
+        LogPriorities.setPriority(key, LogPriority.Critical);
+
+        // Queue every update, not just the latest, so none are missed between loops
+        PubSubOption sendAll = PubSubOption.sendAll(true);
 
         switch (type) {
             case Raw:
-                subscriber =
-                        NetworkTableInstance.getDefault().getRawTopic(key).subscribe(type.getNT4Type(), new byte[0]);
+                subscriber = NetworkTableInstance.getDefault()
+                        .getRawTopic(key)
+                        .subscribe(type.getNT4Type(), new byte[0], sendAll);
+                value.setRaw(new byte[0]);
                 break;
             case Boolean:
                 subscriber =
-                        NetworkTableInstance.getDefault().getBooleanTopic(key).subscribe(false);
+                        NetworkTableInstance.getDefault().getBooleanTopic(key).subscribe(false, sendAll);
+                value.setBoolean(false);
                 break;
             case Integer:
                 subscriber =
-                        NetworkTableInstance.getDefault().getIntegerTopic(key).subscribe(0);
+                        NetworkTableInstance.getDefault().getIntegerTopic(key).subscribe(0, sendAll);
+                value.setInteger(0);
                 break;
             case Float:
                 subscriber =
-                        NetworkTableInstance.getDefault().getFloatTopic(key).subscribe(0);
+                        NetworkTableInstance.getDefault().getFloatTopic(key).subscribe(0, sendAll);
+                value.setFloat(0);
                 break;
             case Double:
                 subscriber =
-                        NetworkTableInstance.getDefault().getDoubleTopic(key).subscribe(0);
+                        NetworkTableInstance.getDefault().getDoubleTopic(key).subscribe(0, sendAll);
+                value.setDouble(0);
                 break;
             case String:
                 subscriber =
-                        NetworkTableInstance.getDefault().getStringTopic(key).subscribe("");
+                        NetworkTableInstance.getDefault().getStringTopic(key).subscribe("", sendAll);
+                value.setString("");
                 break;
             case BooleanArray:
                 subscriber = NetworkTableInstance.getDefault()
                         .getBooleanArrayTopic(key)
-                        .subscribe(new boolean[0]);
+                        .subscribe(new boolean[0], sendAll);
+                value.setBooleanArray(new boolean[0]);
                 break;
             case IntegerArray:
                 subscriber = NetworkTableInstance.getDefault()
                         .getIntegerArrayTopic(key)
-                        .subscribe(new long[0]);
+                        .subscribe(new long[0], sendAll);
+                value.setIntegerArray(new long[0]);
                 break;
             case FloatArray:
                 subscriber = NetworkTableInstance.getDefault()
                         .getFloatArrayTopic(key)
-                        .subscribe(new float[0]);
+                        .subscribe(new float[0], sendAll);
+                value.setFloatArray(new float[0]);
                 break;
             case DoubleArray:
                 subscriber = NetworkTableInstance.getDefault()
                         .getDoubleArrayTopic(key)
-                        .subscribe(new double[0]);
+                        .subscribe(new double[0], sendAll);
+                value.setDoubleArray(new double[0]);
                 break;
             case StringArray:
                 subscriber = NetworkTableInstance.getDefault()
                         .getStringArrayTopic(key)
-                        .subscribe(new String[0]);
+                        .subscribe(new String[0], sendAll);
+                value.setStringArray(new String[0]);
                 break;
         }
     }
 
+    /**
+     * Brings the cached value up to date, once per loop.
+     */
     private LogValue getLogValue() {
-        LogValue value = new LogValue(0.0); // Default value will never occur
+        long cycle = Logger.getCycle();
+        if (cycle == lastRefreshCycle) return value;
+
+        lastRefreshCycle = cycle;
+        hasChanged = false;
+
+        // Serve the recorded value instead when replaying a log
+        if (LogReplay.isActive()) {
+            refreshFromReplay();
+            return value;
+        }
+
+        // Only read the queue when the topic has changed, which is a single native call otherwise
+        long change = subscriber.getLastChange();
+        if (change == lastChange) return value;
+
+        lastChange = change;
+        hasChanged = readQueue();
+
+        return value;
+    }
+
+    /**
+     * Logs every queued update and keeps the newest as the current value.
+     *
+     * @return If any update was read.
+     */
+    private boolean readQueue() {
+        int count = 0;
 
         switch (type) {
             case Raw:
-                value = new LogValue(((RawSubscriber) subscriber).get());
+                for (TimestampedRaw update : ((RawSubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setRaw(update.value);
+                    count++;
+                }
                 break;
             case Boolean:
-                value = new LogValue(((BooleanSubscriber) subscriber).get());
+                for (TimestampedBoolean update : ((BooleanSubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setBoolean(update.value);
+                    count++;
+                }
                 break;
             case Integer:
-                value = new LogValue(((IntegerSubscriber) subscriber).get());
+                for (TimestampedInteger update : ((IntegerSubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setInteger(update.value);
+                    count++;
+                }
                 break;
             case Float:
-                value = new LogValue(((FloatSubscriber) subscriber).get());
+                for (TimestampedFloat update : ((FloatSubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setFloat(update.value);
+                    count++;
+                }
                 break;
             case Double:
-                value = new LogValue(((DoubleSubscriber) subscriber).get());
+                for (TimestampedDouble update : ((DoubleSubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setDouble(update.value);
+                    count++;
+                }
                 break;
             case String:
-                value = new LogValue(((StringSubscriber) subscriber).get());
+                for (TimestampedString update : ((StringSubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setString(update.value);
+                    count++;
+                }
                 break;
             case BooleanArray:
-                value = new LogValue(((BooleanArraySubscriber) subscriber).get());
+                for (TimestampedBooleanArray update : ((BooleanArraySubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setBooleanArray(update.value);
+                    count++;
+                }
                 break;
             case IntegerArray:
-                value = new LogValue(((IntegerArraySubscriber) subscriber).get());
+                for (TimestampedIntegerArray update : ((IntegerArraySubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setIntegerArray(update.value);
+                    count++;
+                }
                 break;
             case FloatArray:
-                value = new LogValue(((FloatArraySubscriber) subscriber).get());
+                for (TimestampedFloatArray update : ((FloatArraySubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setFloatArray(update.value);
+                    count++;
+                }
                 break;
             case DoubleArray:
-                value = new LogValue(((DoubleArraySubscriber) subscriber).get());
+                for (TimestampedDoubleArray update : ((DoubleArraySubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setDoubleArray(update.value);
+                    count++;
+                }
                 break;
             case StringArray:
-                value = new LogValue(((StringArraySubscriber) subscriber).get());
+                for (TimestampedStringArray update : ((StringArraySubscriber) subscriber).readQueue()) {
+                    logUpdate(update.timestamp).setStringArray(update.value);
+                    count++;
+                }
                 break;
         }
 
-        if (subscriber.exists()) Logger.logOnly(key, value);
+        // The newest update is always the last slot appended
+        if (count > 0) value.setFrom(Logger.put(id));
 
-        return value;
+        return count > 0;
+    }
+
+    /**
+     * Returns a new slot in the current log table for an update received at the given time.
+     */
+    private LogValue logUpdate(long timestamp) {
+        // NetworkTables timestamps are taken from the same clock as the FPGA timestamp
+        LogValue arrivalSlot = Logger.append(arrivalId);
+        arrivalSlot.setInteger(timestamp);
+        arrivalSlot.sendToNT = false;
+        arrivalSlot.timestamp = 0;
+
+        // Stamped with the table's time, as an update that arrived before the loop started still belongs to it
+        LogValue slot = Logger.append(id);
+        slot.sendToNT = false;
+        slot.timestamp = 0;
+
+        return slot;
+    }
+
+    private void refreshFromReplay() {
+        LogValue replayValue = LogReplay.getValue(key);
+
+        // Keep the type default until the key appears in the log
+        if (replayValue == null || replayValue.equals(value)) return;
+
+        value.setFrom(replayValue);
+        hasChanged = true;
+
+        // Record the input again so the replayed log can be compared against the original
+        LogValue slot = Logger.put(id);
+        slot.setFrom(replayValue);
+        slot.sendToNT = false;
+        slot.timestamp = 0;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    Subscriber getSubscriber() {
+        return subscriber;
+    }
+
+    /**
+     * @return The current value, refreshed if this is the first read this loop.
+     */
+    LogValue getValue() {
+        return getLogValue();
+    }
+
+    /**
+     * @return If the value changed when it was last refreshed this loop.
+     */
+    public boolean hasChanged() {
+        getLogValue();
+        return hasChanged;
     }
 
     public byte[] getRaw() {
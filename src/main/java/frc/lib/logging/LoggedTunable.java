@@ -0,0 +1,139 @@
+package frc.lib.logging;
+
+import edu.wpi.first.networktables.GenericPublisher;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A value that can be changed from NetworkTables while the robot is running. Instead of being polled every loop,
+ * each tunable registers a NetworkTables listener, and changes are applied between loops by {@link Logger#update()}.
+ * The value therefore never changes partway through a loop, and listeners registered with
+ * {@link #onChange(Runnable)} run on the main thread only when the value actually changed.
+ */
+public class LoggedTunable {
+    private static final List<LoggedTunable> tunables = new ArrayList<>();
+
+    // Tunables with an update from NetworkTables that has not been applied, filled by the listener thread
+    private static final ConcurrentLinkedQueue<LoggedTunable> changedTunables = new ConcurrentLinkedQueue<>();
+
+    private final LoggedReceiver receiver;
+
+    // Publishes the default once, and is kept open so the topic stays published
+    private final GenericPublisher publisher;
+
+    // The applied value, which only changes in applyChanges()
+    private final LogValue value = new LogValue();
+
+    private final List<Runnable> listeners = new ArrayList<>();
+
+    private final AtomicBoolean isQueued = new AtomicBoolean(false);
+
+    LoggedTunable(String key, LogValue defaultValue) {
+        receiver = new LoggedReceiver(defaultValue.type, key);
+        value.setFrom(defaultValue);
+
+        publisher = NetworkTableInstance.getDefault().getTopic(key).genericPublish(defaultValue.type.getNT4Type());
+        NTWriter.set(publisher, defaultValue, 0);
+
+        NetworkTableInstance.getDefault()
+                .addListener(receiver.getSubscriber(), EnumSet.of(NetworkTableEvent.Kind.kValueAll), event -> {
+                    if (isQueued.compareAndSet(false, true)) changedTunables.add(this);
+                });
+
+        tunables.add(this);
+    }
+
+    /**
+     * Applies every change received since the last call. Called by {@link Logger#update()} once per loop.
+     */
+    static void applyChanges() {
+        // There are no NetworkTables updates to listen for during replay, so check every tunable against the log
+        if (LogReplay.isActive()) {
+            for (LoggedTunable tunable : tunables) {
+                tunable.apply();
+            }
+
+            return;
+        }
+
+        LoggedTunable tunable;
+        while ((tunable = changedTunables.poll()) != null) {
+            // Cleared first so an update that arrives while applying queues the tunable again
+            tunable.isQueued.set(false);
+            tunable.apply();
+        }
+    }
+
+    private void apply() {
+        LogValue latest = receiver.getValue();
+        if (latest.equals(value)) return;
+
+        value.setFrom(latest);
+
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Runs the listener on the main thread between loops whenever the value changes. It is not run for the initial
+     * value.
+     */
+    public LoggedTunable onChange(Runnable listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    public String getKey() {
+        return receiver.getKey();
+    }
+
+    public byte[] getRaw() {
+        return value.getRaw();
+    }
+
+    public boolean getBoolean() {
+        return value.getBoolean();
+    }
+
+    public long getInteger() {
+        return value.getInteger();
+    }
+
+    public float getFloat() {
+        return value.getFloat();
+    }
+
+    public double getDouble() {
+        return value.getDouble();
+    }
+
+    public String getString() {
+        return value.getString();
+    }
+
+    public boolean[] getBooleanArray() {
+        return value.getBooleanArray();
+    }
+
+    public long[] getIntegerArray() {
+        return value.getIntegerArray();
+    }
+
+    public float[] getFloatArray() {
+        return value.getFloatArray();
+    }
+
+    public double[] getDoubleArray() {
+        return value.getDoubleArray();
+    }
+
+    public String[] getStringArray() {
+        return value.getStringArray();
+    }
+}
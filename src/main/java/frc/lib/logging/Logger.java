@@ -4,171 +4,400 @@ import edu.wpi.first.hal.HALUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.networktables.*;
-import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.logging.LogHandle.*;
 import frc.lib.logging.LogValue.LoggableType;
+import frc.lib.logging.LoggingThread.OverflowPolicy;
 import frc.lib.logging.LoggingThread.Writer;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
 
 public class Logger {
-    private static int queueCapacity = 50 * 2; // ~ 5 seconds
+    private static int queueCapacity = 128; // ~ 2.5 seconds, must be a power of two
 
-    private static Map<String, LogValue> updatesMap = new HashMap<>();
+    private static int keyframeInterval = 50 * 5; // ~ 5 seconds
 
-    private static BlockingQueue<LogTable> updatesQueue = new ArrayBlockingQueue<>(queueCapacity);
+    // Reserved for the logger's own health metrics
+    static final String metricsPrefix = "/Logging/";
 
-    private static final List<Writer> writers = Arrays.asList(new DataLogWriter(), new NTWriter());
+    static final int metricsWindow = 50; // ~ 1 second of cycles
 
-    private static LoggingThread loggingThread = new LoggingThread(updatesQueue, writers);
+    private static volatile boolean metricsEnabled = true;
+
+    private static final NTWriter ntWriter = new NTWriter(keyframeInterval);
+
+    private static final MetricsWriter metricsWriter = new MetricsWriter();
+
+    private static final DataLogWriter dataLogWriter = new DataLogWriter(keyframeInterval);
+
+    // The metrics writer must be last so it can be skipped while metrics are disabled
+    private static final Writer[] writers = {dataLogWriter, ntWriter, metricsWriter};
+
+    // Each writer can hold a full queue plus one coalesced table
+    private static final LogTablePool tablePool = new LogTablePool(writers.length * (queueCapacity + 1) + 2);
+
+    private static LogTable updatesTable = tablePool.acquire();
+
+    // Handles used by the string keyed log methods below
+    private static final Map<String, LogHandle> handles = new HashMap<>();
+
+    private static final LoggingThread[] loggingThreads = new LoggingThread[writers.length];
 
     private static StringPublisher messagesPublisher = NetworkTableInstance.getDefault()
             .getTable("Messages")
             .getStringTopic("messages")
             .publish();
 
+    private static boolean captureTimestamps = false;
+
+    // Keys stamped individually, indexed by key id so every handle of a key shares the setting
+    private static boolean[] capturedKeys = new boolean[64];
+
+    // Logs the driver station with every loop instead of WPILib's driver station log, which cannot follow a
+    // rotating log. Created on the first update, once the HAL is running
+    private static DriverStationLogger driverStationLogger = null;
+
+    private static long cycle = 0;
+    private static final IntegerHandle cycleHandle = integerHandle(LogReplay.cycleKey);
+
+    private static final IntegerHandle tablesInFlightHandle = integerHandle(metricsPrefix + "Tables In Flight");
+    private static final IntegerHandle tablesAllocatedHandle = integerHandle(metricsPrefix + "Tables Allocated");
+
     static {
-        // Start the logging thread
-        loggingThread.start();
+        // Replay splits the log into loops by the cycle key
+        setPriority(LogReplay.cycleKey, LogPriority.Critical);
+
+        // Start a logging thread for each writer
+        for (int i = 0; i < writers.length; i++) {
+            loggingThreads[i] = new LoggingThread(writers[i], queueCapacity, tablePool);
+            loggingThreads[i].start();
+        }
     }
 
     public static void message(String message) {
         messagesPublisher.set(message);
     }
 
+    /**
+     * Sets how updates are handled when a logging thread falls behind. Defaults to blocking for the DataLog, so its
+     * loops are never merged and it can be replayed, and to coalescing for the others.
+     */
+    public static void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        for (LoggingThread loggingThread : loggingThreads) {
+            loggingThread.setOverflowPolicy(overflowPolicy);
+        }
+    }
+
+    /**
+     * Writes the log to a rotating set of files instead of the DataLogManager's log, starting with the next update.
+     * The new log begins with every known value, so it can be read on its own.
+     */
+    public static void setDataLog(RotatingDataLog log) {
+        dataLogWriter.setSink(log);
+    }
+
+    /**
+     * Sets the priority of a key, or every key starting with a prefix. When several prefixes match a key, the
+     * longest one is used. Keys without a priority are {@link LogPriority#Normal}.
+     */
+    public static void setPriority(String prefix, LogPriority priority) {
+        LogPriorities.setPriority(prefix, priority);
+    }
+
+    /**
+     * Sets how long a table may wait for a writer before values of a priority are shed from it. Critical values are
+     * never shed.
+     */
+    public static void setLatencyBound(LogPriority priority, double seconds) {
+        LogPriorities.setLatencyBound(priority, seconds);
+    }
+
+    /**
+     * Limits how often keys starting with the prefix are published to NetworkTables. The DataLog is unaffected.
+     */
+    public static void setNTPublishPolicy(String prefix, NTPublishPolicy policy) {
+        ntWriter.setPolicy(prefix, policy);
+    }
+
+    /**
+     * Stamps every value with the time it is logged, instead of the time {@link #update()} sends the loop's table.
+     * Individual keys can be stamped instead with {@link #setCaptureTimestamps(String, boolean)}.
+     */
+    public static void setCaptureTimestamps(boolean enabled) {
+        captureTimestamps = enabled;
+    }
+
+    /**
+     * Stamps the values of a single key with the time they are logged.
+     */
+    public static void setCaptureTimestamps(String key, boolean enabled) {
+        setCaptureTimestamps(LogKeyRegistry.register(key), enabled);
+    }
+
+    static void setCaptureTimestamps(int id, boolean enabled) {
+        if (id >= capturedKeys.length) {
+            capturedKeys = Arrays.copyOf(capturedKeys, Math.max(id + 1, capturedKeys.length * 2));
+        }
+
+        capturedKeys[id] = enabled;
+    }
+
+    /**
+     * Enables or disables publishing the logger's own metrics under /Logging/. Enabled by default.
+     */
+    public static void setMetricsEnabled(boolean enabled) {
+        metricsEnabled = enabled;
+    }
+
+    static boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    static boolean isCapturingTimestamps(int id) {
+        return captureTimestamps || (id < capturedKeys.length && capturedKeys[id]);
+    }
+
     public static void update() {
-        try {
-            // Send the current updates to the updating thread
-            updatesQueue.add(new LogTable(updatesMap, HALUtil.getFPGATime()));
-
-            // Reset the update table
-            updatesMap = new HashMap<>();
-        } catch (IllegalStateException exception) {
-            DriverStation.reportError("Logging queue capacity exceeded, data is no longer being logged.", false);
+        if (driverStationLogger == null) driverStationLogger = new DriverStationLogger();
+        driverStationLogger.log();
+
+        // Marks the end of each loop for replay
+        cycleHandle.set(++cycle);
+
+        boolean isMetricsEnabled = metricsEnabled;
+
+        if (isMetricsEnabled) {
+            tablesInFlightHandle.set(tablePool.getTablesInFlight());
+            tablesAllocatedHandle.set(tablePool.getTablesAllocated());
+
+            for (LoggingThread loggingThread : loggingThreads) {
+                loggingThread.logMetrics();
+            }
+
+            metricsWriter.logMetrics();
+        }
+
+        // Send the current updates to every logging thread, skipping the metrics thread while disabled
+        int threadCount = isMetricsEnabled ? loggingThreads.length : loggingThreads.length - 1;
+
+        updatesTable.setTimestamp(HALUtil.getFPGATime());
+        updatesTable.setReferences(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            loggingThreads[i].submit(updatesTable);
+        }
+
+        // Reset the update table with a recycled one
+        updatesTable = tablePool.acquire();
+
+        // Tunables change between loops, so they are recorded in the next loop's table
+        LoggedTunable.applyChanges();
+    }
+
+    /**
+     * Waits for every logging thread to finish writing the tables queued so far.
+     *
+     * @return If the queues emptied before the timeout.
+     */
+    public static boolean flush(double timeoutSeconds) {
+        long deadline = System.nanoTime() + (long) (timeoutSeconds * 1e9);
+
+        while (tablePool.getTablesInFlight() > 1) {
+            if (System.nanoTime() > deadline) return false;
+
+            LockSupport.parkNanos(1_000_000);
         }
+
+        return true;
+    }
+
+    /**
+     * Returns the slot for a key id in the current update table.
+     */
+    static LogValue put(int id) {
+        return updatesTable.put(id);
+    }
+
+    /**
+     * Adds another slot for a key id to the current update table, keeping any value already logged this loop.
+     */
+    static LogValue append(int id) {
+        return updatesTable.append(id);
+    }
+
+    /**
+     * @return The number of times {@link #update()} has been called.
+     */
+    static long getCycle() {
+        return cycle;
+    }
+
+    private static LogHandle handle(String key) {
+        return handles.computeIfAbsent(key, LogHandle::new);
+    }
+
+    /* Handles - Register a key once and log to it without allocating */
+
+    public static RawHandle rawHandle(String key) {
+        return new RawHandle(key);
+    }
+
+    public static BooleanHandle booleanHandle(String key) {
+        return new BooleanHandle(key);
+    }
+
+    public static BooleanArrayHandle booleanArrayHandle(String key) {
+        return new BooleanArrayHandle(key);
+    }
+
+    public static IntegerHandle integerHandle(String key) {
+        return new IntegerHandle(key);
+    }
+
+    public static IntegerArrayHandle integerArrayHandle(String key) {
+        return new IntegerArrayHandle(key);
+    }
+
+    public static DoubleHandle doubleHandle(String key) {
+        return new DoubleHandle(key);
+    }
+
+    public static DoubleArrayHandle doubleArrayHandle(String key) {
+        return new DoubleArrayHandle(key);
+    }
+
+    public static StringHandle stringHandle(String key) {
+        return new StringHandle(key);
+    }
+
+    public static StringArrayHandle stringArrayHandle(String key) {
+        return new StringArrayHandle(key);
+    }
+
+    public static <T> StructDoublesHandle<T> doubleArrayHandle(String key, LogStruct<T> struct) {
+        return new StructDoublesHandle<>(key, struct);
     }
 
     /* Log only methods - Log without sending to NetworkTables */
     public static void logOnly(String key, LogValue value) {
-        updatesMap.put(key, value.withoutNT());
+        LogValue slot = handle(key).put();
+        long timestamp = slot.timestamp;
+
+        slot.setFrom(value);
+        slot.sendToNT = false;
+        if (slot.timestamp == 0) slot.timestamp = timestamp;
     }
 
     /* Logger Methods - Log to DataLog and NetworkTables, no getting */
 
     public static void log(String key, boolean value) {
-        updatesMap.put(key, new LogValue(value));
+        handle(key).put().setBoolean(value);
     }
 
     public static void log(String key, boolean[] value) {
-        updatesMap.put(key, new LogValue(value));
+        handle(key).put().setBooleanArray(value);
     }
 
     public static void log(String key, double value) {
-        updatesMap.put(key, new LogValue(value));
+        handle(key).put().setDouble(value);
     }
 
     public static void log(String key, double[] value) {
-        updatesMap.put(key, new LogValue(value));
+        handle(key).put().setDoubleArray(value);
     }
 
     public static void log(String key, long value) {
-        updatesMap.put(key, new LogValue(value));
+        handle(key).put().setInteger(value);
     }
 
     public static void log(String key, long[] value) {
-        updatesMap.put(key, new LogValue(value));
+        handle(key).put().setIntegerArray(value);
     }
 
     public static void log(String key, String value) {
-        updatesMap.put(key, new LogValue(value));
+        handle(key).put().setString(value);
     }
 
     public static void log(String key, String[] value) {
-        updatesMap.put(key, new LogValue(value));
+        handle(key).put().setStringArray(value);
     }
 
     public static void log(String key, ChassisSpeeds value) {
-        log(key, new double[] {value.vxMetersPerSecond, value.vyMetersPerSecond, value.omegaRadiansPerSecond});
+        LogStruct.chassisSpeeds.packDoubles(handle(key).put().setDoubleArray(3), 0, value);
     }
 
     public static void log(String key, Pose2d value) {
-        log(key, new double[] {value.getX(), value.getY(), value.getRotation().getRadians()});
+        LogStruct.pose2d.packDoubles(handle(key).put().setDoubleArray(3), 0, value);
     }
 
     public static void log(String key, Pose3d value, boolean logQuaternion) {
         if (logQuaternion) {
-            var rotation = value.getRotation().getQuaternion();
-
-            log(key, new double[] {
-                value.getX(),
-                value.getY(),
-                value.getZ(),
-                rotation.getW(),
-                rotation.getX(),
-                rotation.getY(),
-                rotation.getZ()
-            });
+            LogStruct.pose3d.packDoubles(handle(key).put().setDoubleArray(7), 0, value);
         } else {
             var rotation = value.getRotation();
-
-            log(key, new double[] {
-                value.getX(), value.getY(), value.getZ(), rotation.getX(), rotation.getY(), rotation.getZ()
-            });
+            double[] buffer = handle(key).put().setDoubleArray(6);
+
+            buffer[0] = value.getX();
+            buffer[1] = value.getY();
+            buffer[2] = value.getZ();
+            buffer[3] = rotation.getX();
+            buffer[4] = rotation.getY();
+            buffer[5] = rotation.getZ();
         }
     }
 
-    /* Tunables - Log the value once and returns an subscriber */
-
-    public static LoggedReceiver tunable(String key, boolean value) {
-        log(key, value);
+    public static void log(String key, SwerveModuleState[] value) {
+        LogStruct<SwerveModuleState> struct = LogStruct.swerveModuleState;
 
-        return receive(key, value);
+        double[] buffer = handle(key).put().setDoubleArray(struct.doubleCount * value.length);
+        for (int i = 0; i < value.length; i++) {
+            struct.packDoubles(buffer, i * struct.doubleCount, value[i]);
+        }
     }
 
-    public static LoggedReceiver tunable(String key, boolean[] value) {
-        log(key, value);
+    /* Tunables - Log the value once and apply changes from NetworkTables between loops */
 
-        return receive(key, value);
+    public static LoggedTunable tunable(String key, boolean value) {
+        return tunable(key, new LogValue(value));
     }
 
-    public static LoggedReceiver tunable(String key, double value) {
-        log(key, value);
-
-        return receive(key, value);
+    public static LoggedTunable tunable(String key, boolean[] value) {
+        return tunable(key, new LogValue(value));
     }
 
-    public static LoggedReceiver tunable(String key, double[] value) {
-        log(key, value);
-
-        return receive(key, value);
+    public static LoggedTunable tunable(String key, double value) {
+        return tunable(key, new LogValue(value));
     }
 
-    public static LoggedReceiver tunable(String key, long value) {
-        log(key, value);
-
-        return receive(key, value);
+    public static LoggedTunable tunable(String key, double[] value) {
+        return tunable(key, new LogValue(value));
     }
 
-    public static LoggedReceiver tunable(String key, long[] value) {
-        log(key, value);
+    public static LoggedTunable tunable(String key, long value) {
+        return tunable(key, new LogValue(value));
+    }
 
-        return receive(key, value);
+    public static LoggedTunable tunable(String key, long[] value) {
+        return tunable(key, new LogValue(value));
     }
 
-    public static LoggedReceiver tunable(String key, String value) {
-        log(key, value);
+    public static LoggedTunable tunable(String key, String value) {
+        return tunable(key, new LogValue(value));
+    }
 
-        return receive(key, value);
+    public static LoggedTunable tunable(String key, String[] value) {
+        return tunable(key, new LogValue(value));
     }
 
-    public static LoggedReceiver tunable(String key, String[] value) {
-        log(key, value);
+    private static LoggedTunable tunable(String key, LogValue defaultValue) {
+        // Kept out of the NetworkTables writer, whose keyframes would overwrite changes from the dashboard with the
+        // default, so the tunable publishes it once itself
+        logOnly(key, defaultValue);
 
-        return receive(key, value);
+        return new LoggedTunable(key, defaultValue);
     }
 
     /* Receivers - Get and log values from NetworkTables */
@@ -204,6 +433,4 @@ public class Logger {
     public static LoggedReceiver receive(String key, String[] value) {
         return new LoggedReceiver(LoggableType.StringArray, key);
     }
-
-    public static record LogTable(Map<String, LogValue> updatesMap, long timestamp) {}
 }
@@ -1,19 +1,103 @@
 package frc.lib.logging;
 
-import frc.lib.logging.Logger.LogTable;
-import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import edu.wpi.first.hal.HALUtil;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.LogHandle.IntegerHandle;
+import frc.lib.loops.TripleBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Runs a single writer on its own thread with its own queue, so a slow writer only ever drops its own data.
+ */
 public class LoggingThread extends Thread {
-    private final BlockingQueue<LogTable> queue;
+    private static final long blockTimeoutNanos = 2_000_000;
 
-    private final List<Writer> writers;
+    private static final LogPriority[] priorities = LogPriority.values();
 
-    LoggingThread(BlockingQueue<LogTable> queue, List<Writer> writers) {
-        super("Logging Thread");
+    private final LogRingBuffer<LogTable> queue;
+
+    private final LogTablePool tablePool;
+
+    private final Writer writer;
+
+    private volatile OverflowPolicy overflowPolicy;
+
+    // Only accessed by the producer
+    private LogTable coalescedTable = null;
+    private long droppedTables = 0;
+    private long droppedKeys = 0;
+
+    // Written by this thread and read by the producer for metrics
+    private volatile long writeDuration = 0;
+    private volatile long latency = 0;
+
+    // Write duration percentiles of the last full window, in nanoseconds
+    private final LatencyHistogram writeDurations = new LatencyHistogram();
+    private volatile long writeDurationP50 = 0;
+    private volatile long writeDurationP90 = 0;
+    private volatile long writeDurationP99 = 0;
+    private volatile long writeDurationMax = 0;
+
+    // Latency of the values written for each priority over the last full window, in microseconds. Only used by
+    // writers that can shed values.
+    private final LatencyHistogram[] priorityLatencies;
+    private final TripleBuffer<PriorityLatencies> priorityLatencyWindows;
+    private final AtomicLongArray shedTables;
+
+    private final int queueCapacity;
+
+    private final IntegerHandle backlogHandle;
+    private final DoubleHandle queueOccupancyHandle;
+    private final DoubleHandle writeDurationHandle;
+    private final DoubleHandle writeDurationP50Handle;
+    private final DoubleHandle writeDurationP90Handle;
+    private final DoubleHandle writeDurationP99Handle;
+    private final DoubleHandle writeDurationMaxHandle;
+    private final DoubleHandle latencyHandle;
+    private final IntegerHandle droppedTablesHandle;
+    private final IntegerHandle droppedKeysHandle;
+    private final DoubleHandle[] priorityLatencyP99Handles;
+    private final DoubleHandle[] priorityLatencyMaxHandles;
+    private final IntegerHandle[] shedTablesHandles;
+
+    LoggingThread(Writer writer, int queueCapacity, LogTablePool tablePool) {
+        super("Logging Thread - " + writer.getName());
         this.setDaemon(true);
-        this.queue = queue;
-        this.writers = writers;
+        this.queue = new LogRingBuffer<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.tablePool = tablePool;
+        this.writer = writer;
+        this.overflowPolicy = writer.getDefaultOverflowPolicy();
+
+        String prefix = Logger.metricsPrefix + writer.getName() + "/";
+        backlogHandle = Logger.integerHandle(prefix + "Backlog");
+        queueOccupancyHandle = Logger.doubleHandle(prefix + "Queue Occupancy");
+        writeDurationHandle = Logger.doubleHandle(prefix + "Write Duration");
+        writeDurationP50Handle = Logger.doubleHandle(prefix + "Write Duration P50");
+        writeDurationP90Handle = Logger.doubleHandle(prefix + "Write Duration P90");
+        writeDurationP99Handle = Logger.doubleHandle(prefix + "Write Duration P99");
+        writeDurationMaxHandle = Logger.doubleHandle(prefix + "Write Duration Max");
+        latencyHandle = Logger.doubleHandle(prefix + "Latency");
+        droppedTablesHandle = Logger.integerHandle(prefix + "Dropped Tables");
+        droppedKeysHandle = Logger.integerHandle(prefix + "Dropped Keys");
+
+        int priorityCount = writer.canShed() ? priorities.length : 0;
+        priorityLatencies = new LatencyHistogram[priorityCount];
+        priorityLatencyWindows = new TripleBuffer<>(() -> new PriorityLatencies(priorityCount));
+        shedTables = new AtomicLongArray(priorityCount);
+        priorityLatencyP99Handles = new DoubleHandle[priorityCount];
+        priorityLatencyMaxHandles = new DoubleHandle[priorityCount];
+        shedTablesHandles = new IntegerHandle[priorityCount];
+
+        for (int i = 0; i < priorityCount; i++) {
+            String priorityPrefix = prefix + priorities[i] + "/";
+            priorityLatencies[i] = new LatencyHistogram();
+            priorityLatencyP99Handles[i] = Logger.doubleHandle(priorityPrefix + "Latency P99");
+            priorityLatencyMaxHandles[i] = Logger.doubleHandle(priorityPrefix + "Latency Max");
+            shedTablesHandles[i] = Logger.integerHandle(priorityPrefix + "Shed Tables");
+        }
     }
 
     public void run() {
@@ -22,15 +106,243 @@ public class LoggingThread extends Thread {
                 // Await the next update
                 LogTable updateTable = queue.take();
 
-                // Send the update table to each writer
-                writers.forEach((Writer writer) -> writer.sendUpdates(updateTable));
+                long startTime = System.nanoTime();
+
+                // Shed the priorities this table has already waited longer than the bound of
+                LogPriority lowestWritten = LogPriority.Debug;
+                if (writer.canShed()) {
+                    lowestWritten = LogPriorities.getLowestWritten(HALUtil.getFPGATime() - updateTable.timestamp());
+                    writer.setLowestWritten(lowestWritten);
+                }
+
+                writer.sendUpdates(updateTable);
+
+                writeDuration = System.nanoTime() - startTime;
+                latency = HALUtil.getFPGATime() - updateTable.timestamp();
+
+                if (writer.canShed()) recordPriorities(lowestWritten, latency);
+                if (Logger.isMetricsEnabled()) recordWriteDuration(writeDuration);
+
+                // Return the table to be filled again once every thread is done with it
+                tablePool.release(updateTable);
             }
         } catch (InterruptedException exception) {
-            // Error printed in the main thread
+            // Thread is only interrupted on shutdown
+        }
+    }
+
+    private void recordWriteDuration(long duration) {
+        writeDurations.record(duration);
+        if (writeDurations.getCount() < Logger.metricsWindow) return;
+
+        writeDurationP50 = writeDurations.getPercentile(50);
+        writeDurationP90 = writeDurations.getPercentile(90);
+        writeDurationP99 = writeDurations.getPercentile(99);
+        writeDurationMax = writeDurations.getMax();
+        writeDurations.reset();
+
+        // Priority windows end with the write duration window, even for priorities that were shed throughout
+        PriorityLatencies window = priorityLatencyWindows.getWriteBuffer();
+        for (int i = 0; i < priorityLatencies.length; i++) {
+            window.p99[i] = priorityLatencies[i].getPercentile(99);
+            window.max[i] = priorityLatencies[i].getMax();
+            priorityLatencies[i].reset();
+        }
+
+        priorityLatencyWindows.publish();
+    }
+
+    private void recordPriorities(LogPriority lowestWritten, long latency) {
+        for (LogPriority priority : priorities) {
+            if (!priority.isWrittenAt(lowestWritten)) {
+                shedTables.incrementAndGet(priority.ordinal());
+            } else if (Logger.isMetricsEnabled()) {
+                priorityLatencies[priority.ordinal()].record(latency);
+            }
+        }
+    }
+
+    /**
+     * Queues a table to be written, applying the overflow policy if the queue is full. The table must already hold
+     * a reference for this thread, which is released if the table is not queued. Must only be called from the main
+     * thread.
+     */
+    void submit(LogTable table) {
+        // Tables held back earlier must be written first to keep updates in order
+        if (coalescedTable != null) {
+            if (queue.offer(coalescedTable)) {
+                droppedKeys += coalescedTable.getCoalescedKeys();
+                coalescedTable = null;
+            } else {
+                coalesce(table);
+                return;
+            }
+        }
+
+        if (queue.offer(table)) return;
+
+        if (droppedTables == 0) {
+            DriverStation.reportWarning(
+                    getName() + " queue capacity exceeded, applying " + overflowPolicy + " policy.", false);
+        }
+
+        switch (overflowPolicy) {
+            case DropOldest:
+                LogTable oldestTable = queue.poll();
+                if (oldestTable != null) {
+                    drop(oldestTable);
+                    tablePool.release(oldestTable);
+                }
+
+                if (queue.offer(table)) return;
+                break;
+            case Coalesce:
+                coalesce(table);
+                return;
+            case Block:
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                while (System.nanoTime() < deadline) {
+                    if (queue.offer(table)) return;
+
+                    LockSupport.parkNanos(50_000);
+                }
+                break;
+        }
+
+        // Give up on the newest table
+        drop(table);
+        tablePool.release(table);
+    }
+
+    /**
+     * Merges a table into this thread's private coalesced table, keeping only the newest value of each key.
+     */
+    private void coalesce(LogTable table) {
+        if (coalescedTable == null) {
+            coalescedTable = tablePool.acquire();
+            coalescedTable.startCoalescing();
+        }
+
+        coalescedTable.putAll(table);
+        droppedTables++;
+
+        tablePool.release(table);
+    }
+
+    private void drop(LogTable table) {
+        droppedTables++;
+        droppedKeys += table.size();
+    }
+
+    /**
+     * Logs this thread's backlog, timing, and dropped data. Must only be called from the main thread.
+     */
+    void logMetrics() {
+        int backlog = queue.size();
+        backlogHandle.set(backlog);
+        queueOccupancyHandle.set(100.0 * backlog / queueCapacity); // %
+        writeDurationHandle.set(writeDuration / 1e6); // ms
+        writeDurationP50Handle.set(writeDurationP50 / 1e6); // ms
+        writeDurationP90Handle.set(writeDurationP90 / 1e6); // ms
+        writeDurationP99Handle.set(writeDurationP99 / 1e6); // ms
+        writeDurationMaxHandle.set(writeDurationMax / 1e6); // ms
+        latencyHandle.set(latency / 1e3); // ms
+        droppedTablesHandle.set(droppedTables);
+        droppedKeysHandle.set(droppedKeys);
+
+        PriorityLatencies window = priorityLatencyWindows.read();
+        for (int i = 0; i < shedTablesHandles.length; i++) {
+            priorityLatencyP99Handles[i].set(window.p99[i] / 1e3); // ms
+            priorityLatencyMaxHandles[i].set(window.max[i] / 1e3); // ms
+            shedTablesHandles[i].set(shedTables.get(i));
+        }
+    }
+
+    void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    Writer getWriter() {
+        return writer;
+    }
+
+    long getDroppedTables() {
+        return droppedTables;
+    }
+
+    long getDroppedKeys() {
+        return droppedKeys;
+    }
+
+    int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return How long the writer took to write the most recent table in nanoseconds.
+     */
+    long getWriteDuration() {
+        return writeDuration;
+    }
+
+    /**
+     * @return The time from the most recent table being logged to it being written in microseconds.
+     */
+    long getLatency() {
+        return latency;
+    }
+
+    // Latency of each priority over a full window, in microseconds
+    private static class PriorityLatencies {
+        private final long[] p99;
+        private final long[] max;
+
+        private PriorityLatencies(int priorityCount) {
+            p99 = new long[priorityCount];
+            max = new long[priorityCount];
         }
     }
 
     public interface Writer {
         public void sendUpdates(LogTable logTable);
+
+        /**
+         * @return If the writer skips values below the priority given by {@link #setLowestWritten(LogPriority)}.
+         */
+        public default boolean canShed() {
+            return false;
+        }
+
+        /**
+         * Sets the lowest priority to write for the next table, values of lower priorities should be skipped. Only
+         * called for writers that can shed values.
+         */
+        public default void setLowestWritten(LogPriority priority) {}
+
+        /**
+         * @return How this writer's thread handles a full queue until {@link Logger#setOverflowPolicy} is called.
+         */
+        public default OverflowPolicy getDefaultOverflowPolicy() {
+            return OverflowPolicy.Coalesce;
+        }
+
+        public default String getName() {
+            return getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * What to do with a new table when a logging thread has fallen behind and its queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the oldest queued table to make room. */
+        DropOldest,
+        /**
+         * Keep the newest value of each key in a held back table until there is room. This merges several loops
+         * into one, so it must not be used for a log that will be replayed.
+         */
+        Coalesce,
+        /** Wait a short time for room, then discard the new table. */
+        Block
     }
 }
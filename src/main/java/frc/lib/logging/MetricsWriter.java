@@ -0,0 +1,144 @@
+package frc.lib.logging;
+
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.LogHandle.IntegerArrayHandle;
+import frc.lib.logging.LogHandle.StringArrayHandle;
+import frc.lib.logging.LoggingThread.Writer;
+import frc.lib.loops.TripleBuffer;
+import java.util.Arrays;
+
+/**
+ * Measures the logged data itself on its own logging thread, so the main thread only pays for publishing the
+ * results. Reports the keys and payload bytes logged per cycle, and the keys that logged the most bytes, over a
+ * window of cycles.
+ */
+class MetricsWriter implements Writer {
+    private static final int heaviestKeyCount = 10;
+
+    // Payload bytes logged per key id during the current window
+    private long[] bytesByID = new long[64];
+
+    private int windowCycles = 0;
+    private long windowKeys = 0;
+    private long windowBytes = 0;
+    private long windowMaxBytes = 0;
+
+    // The heaviest keys of the current window, reused between windows
+    private final int[] heaviestIDs = new int[heaviestKeyCount];
+    private final long[] heaviestBytes = new long[heaviestKeyCount];
+
+    // Results of the last full window, handed over as a whole so the main thread never sees a partial update
+    private final TripleBuffer<Window> windows = new TripleBuffer<>(Window::new);
+
+    private final DoubleHandle keysPerCycleHandle;
+    private final DoubleHandle bytesPerCycleHandle;
+    private final DoubleHandle maxBytesPerCycleHandle;
+    private final StringArrayHandle heaviestKeysHandle;
+    private final IntegerArrayHandle heaviestKeyBytesHandle;
+
+    MetricsWriter() {
+        keysPerCycleHandle = Logger.doubleHandle(Logger.metricsPrefix + "Keys Per Cycle");
+        bytesPerCycleHandle = Logger.doubleHandle(Logger.metricsPrefix + "Bytes Per Cycle");
+        maxBytesPerCycleHandle = Logger.doubleHandle(Logger.metricsPrefix + "Max Bytes Per Cycle");
+        heaviestKeysHandle = Logger.stringArrayHandle(Logger.metricsPrefix + "Heaviest Keys");
+        heaviestKeyBytesHandle = Logger.integerArrayHandle(Logger.metricsPrefix + "Heaviest Key Bytes");
+    }
+
+    public void sendUpdates(LogTable logTable) {
+        long cycleBytes = 0;
+
+        for (int i = 0; i < logTable.size(); i++) {
+            int keyID = logTable.getId(i);
+            int size = logTable.getValue(i).getSize();
+
+            if (keyID >= bytesByID.length) {
+                bytesByID = Arrays.copyOf(bytesByID, Math.max(keyID + 1, bytesByID.length * 2));
+            }
+
+            bytesByID[keyID] += size;
+            cycleBytes += size;
+        }
+
+        windowCycles++;
+        windowKeys += logTable.size();
+        windowBytes += cycleBytes;
+        windowMaxBytes = Math.max(windowMaxBytes, cycleBytes);
+
+        if (windowCycles >= Logger.metricsWindow) finishWindow();
+    }
+
+    private void finishWindow() {
+        // Keep the heaviest keys sorted by descending bytes with an insertion into a short array
+        int count = 0;
+
+        for (int keyID = 0; keyID < bytesByID.length; keyID++) {
+            long bytes = bytesByID[keyID];
+            if (bytes == 0 || (count == heaviestKeyCount && bytes <= heaviestBytes[count - 1])) continue;
+
+            int position = Math.min(count, heaviestKeyCount - 1);
+            while (position > 0 && heaviestBytes[position - 1] < bytes) {
+                heaviestIDs[position] = heaviestIDs[position - 1];
+                heaviestBytes[position] = heaviestBytes[position - 1];
+                position--;
+            }
+
+            heaviestIDs[position] = keyID;
+            heaviestBytes[position] = bytes;
+            count = Math.min(count + 1, heaviestKeyCount);
+        }
+
+        Window window = windows.getWriteBuffer();
+        window.isComplete = true;
+        window.keysPerCycle = (double) windowKeys / windowCycles;
+        window.bytesPerCycle = (double) windowBytes / windowCycles;
+        window.maxBytesPerCycle = windowMaxBytes;
+
+        // Only reallocated until there are enough keys to fill the list
+        if (window.heaviestKeys.length != count) {
+            window.heaviestKeys = new String[count];
+            window.heaviestKeyBytes = new long[count];
+        }
+
+        for (int i = 0; i < count; i++) {
+            window.heaviestKeys[i] = LogKeyRegistry.getKey(heaviestIDs[i]);
+            window.heaviestKeyBytes[i] = heaviestBytes[i];
+        }
+
+        windows.publish();
+
+        Arrays.fill(bytesByID, 0);
+        windowCycles = 0;
+        windowKeys = 0;
+        windowBytes = 0;
+        windowMaxBytes = 0;
+    }
+
+    /**
+     * Logs the results of the last full window. Must only be called from the main thread.
+     */
+    void logMetrics() {
+        Window window = windows.read();
+        if (!window.isComplete) return;
+
+        keysPerCycleHandle.set(window.keysPerCycle);
+        bytesPerCycleHandle.set(window.bytesPerCycle);
+        maxBytesPerCycleHandle.set(window.maxBytesPerCycle);
+        heaviestKeysHandle.set(window.heaviestKeys);
+        heaviestKeyBytesHandle.set(window.heaviestKeyBytes);
+    }
+
+    public String getName() {
+        return "Metrics";
+    }
+
+    private static class Window {
+        // False until the first window is finished
+        private boolean isComplete = false;
+
+        private double keysPerCycle;
+        private double bytesPerCycle;
+        private long maxBytesPerCycle;
+        private String[] heaviestKeys = new String[0];
+        private long[] heaviestKeyBytes = new long[0];
+    }
+}
@@ -0,0 +1,76 @@
+package frc.lib.logging;
+
+/**
+ * Limits how often a key is published to NetworkTables. Policies only apply to {@link NTWriter}, the DataLog still
+ * records every value at the full loop rate.
+ */
+public class NTPublishPolicy {
+    /** Publish every change, the default for keys without a policy. */
+    public static final NTPublishPolicy fullRate = new NTPublishPolicy(0, 1, 0);
+
+    public final double maxRate;
+    public final int decimation;
+    public final double minDelta;
+
+    /**
+     * @param maxRate The maximum number of publishes per second, or 0 for no limit.
+     * @param decimation The minimum number of logging cycles between publishes, 1 publishes every cycle.
+     * @param minDelta The amount a numeric value (or any element of a numeric array) must change by before it is
+     * published again, or 0 to publish any change.
+     */
+    public NTPublishPolicy(double maxRate, int decimation, double minDelta) {
+        this.maxRate = maxRate;
+        this.decimation = Math.max(decimation, 1);
+        this.minDelta = minDelta;
+    }
+
+    /**
+     * @return The minimum time between publishes in microseconds.
+     */
+    long getMinimumPeriod() {
+        return maxRate > 0 ? (long) (1e6 / maxRate) : 0;
+    }
+
+    /**
+     * @return If the value has moved far enough from the last published value to be published.
+     */
+    boolean exceedsMinDelta(LogValue lastPublished, LogValue value) {
+        if (minDelta <= 0 || lastPublished.type != value.type) return true;
+
+        switch (value.type) {
+            case Integer:
+                return Math.abs(value.getInteger() - lastPublished.getInteger()) >= minDelta;
+            case Float:
+                return Math.abs(value.getFloat() - lastPublished.getFloat()) >= minDelta;
+            case Double:
+                return Math.abs(value.getDouble() - lastPublished.getDouble()) >= minDelta;
+            case IntegerArray:
+                long[] integers = value.getIntegerArray();
+                long[] lastIntegers = lastPublished.getIntegerArray();
+                if (integers.length != lastIntegers.length) return true;
+                for (int i = 0; i < integers.length; i++) {
+                    if (Math.abs(integers[i] - lastIntegers[i]) >= minDelta) return true;
+                }
+                return false;
+            case FloatArray:
+                float[] floats = value.getFloatArray();
+                float[] lastFloats = lastPublished.getFloatArray();
+                if (floats.length != lastFloats.length) return true;
+                for (int i = 0; i < floats.length; i++) {
+                    if (Math.abs(floats[i] - lastFloats[i]) >= minDelta) return true;
+                }
+                return false;
+            case DoubleArray:
+                double[] doubles = value.getDoubleArray();
+                double[] lastDoubles = lastPublished.getDoubleArray();
+                if (doubles.length != lastDoubles.length) return true;
+                for (int i = 0; i < doubles.length; i++) {
+                    if (Math.abs(doubles[i] - lastDoubles[i]) >= minDelta) return true;
+                }
+                return false;
+            default:
+                // Non-numeric values have no notion of distance
+                return true;
+        }
+    }
+}
@@ -3,67 +3,265 @@ package frc.lib.logging;
 import edu.wpi.first.networktables.GenericPublisher;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.PubSubOption;
-import frc.lib.logging.Logger.LogTable;
 import frc.lib.logging.LoggingThread.Writer;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NTWriter implements Writer {
     private final NetworkTableInstance nt = NetworkTableInstance.getDefault();
 
-    private final Map<String, GenericPublisher> publishers = new HashMap<>();
+    // Indexed by key id
+    private PublishedKey[] publishedKeys = new PublishedKey[64];
+
+    // Keys whose latest value was held back by their policy and still needs to be published
+    private final List<PublishedKey> pendingKeys = new ArrayList<>();
+
+    // Policies are set from the main thread and resolved on the logging thread
+    private final Map<String, NTPublishPolicy> policies = new ConcurrentHashMap<>();
+    private volatile int policyVersion = 0;
+
+    private final DeltaFilter deltaFilter;
+
+    private final LogPriorities priorities = new LogPriorities();
+    private LogPriority lowestWritten = LogPriority.Debug;
+
+    private int cycle = 0;
+
+    /**
+     * @param keyframeInterval The number of cycles between publishing every value, unchanged values are skipped
+     * otherwise.
+     */
+    public NTWriter(int keyframeInterval) {
+        deltaFilter = new DeltaFilter(keyframeInterval);
+    }
+
+    /**
+     * Sets the publishing policy for every key starting with the prefix. When several prefixes match a key, the
+     * longest one is used.
+     */
+    public void setPolicy(String prefix, NTPublishPolicy policy) {
+        policies.put(prefix, policy);
+        policyVersion++;
+    }
+
+    public boolean canShed() {
+        return true;
+    }
+
+    public void setLowestWritten(LogPriority priority) {
+        lowestWritten = priority;
+    }
 
     public void sendUpdates(LogTable logTable) {
-        for (Map.Entry<String, LogValue> field : logTable.updatesMap().entrySet()) {
+        boolean isKeyframe = deltaFilter.startCycle();
+        cycle++;
+
+        for (int i = 0; i < logTable.size(); i++) {
+            int keyID = logTable.getId(i);
+            LogValue value = logTable.getValue(i);
+
             // Skip any values with NT logging disabled
-            if (field.getValue().sendToNT) {
-
-                // Create publisher if necessary
-                String key = field.getKey();
-                GenericPublisher publisher = publishers.get(key);
-                if (publisher == null) {
-                    publisher = nt.getTopic(key)
-                            .genericPublish(field.getValue().type.getNT4Type(), PubSubOption.sendAll(true));
-                    publishers.put(key, publisher);
+            if (!value.sendToNT) continue;
+
+            // Shed values are left out of the delta filter, so they are published once their priority catches up
+            if (!priorities.get(keyID).isWrittenAt(lowestWritten)) continue;
+
+            // Only publish values that have changed, unchanged values are published below on keyframes
+            if (deltaFilter.update(keyID, value)) {
+                long timestamp = value.timestamp != 0 ? value.timestamp : logTable.timestamp();
+
+                // Keyframes ignore policies, so nothing is left pending
+                if (isKeyframe) {
+                    publish(getPublishedKey(keyID), value, timestamp);
+                } else {
+                    offer(getPublishedKey(keyID), value, timestamp);
                 }
+            }
+        }
 
-                // Send updates to NetworkTables and DataLog
-                switch (field.getValue().type) {
-                    case Raw:
-                        publisher.setRaw(field.getValue().getRaw(), logTable.timestamp());
-                        break;
-                    case Boolean:
-                        publisher.setBoolean(field.getValue().getBoolean(), logTable.timestamp());
-                        break;
-                    case BooleanArray:
-                        publisher.setBooleanArray(field.getValue().getBooleanArray(), logTable.timestamp());
-                        break;
-                    case Integer:
-                        publisher.setInteger(field.getValue().getInteger(), logTable.timestamp());
-                        break;
-                    case IntegerArray:
-                        publisher.setIntegerArray(field.getValue().getIntegerArray(), logTable.timestamp());
-                        break;
-                    case Float:
-                        publisher.setFloat(field.getValue().getFloat(), logTable.timestamp());
-                        break;
-                    case FloatArray:
-                        publisher.setFloatArray(field.getValue().getFloatArray(), logTable.timestamp());
-                        break;
-                    case Double:
-                        publisher.setDouble(field.getValue().getDouble(), logTable.timestamp());
-                        break;
-                    case DoubleArray:
-                        publisher.setDoubleArray(field.getValue().getDoubleArray(), logTable.timestamp());
-                        break;
-                    case String:
-                        publisher.setString(field.getValue().getString(), logTable.timestamp());
-                        break;
-                    case StringArray:
-                        publisher.setStringArray(field.getValue().getStringArray(), logTable.timestamp());
-                        break;
+        if (isKeyframe) {
+            // Repeated values are dated now, a captured timestamp would put them in an earlier cycle
+            for (int keyID = 0; keyID < deltaFilter.getIdLimit(); keyID++) {
+                LogValue value = deltaFilter.getLastValue(keyID);
+                if (value != null
+                        && !deltaFilter.isChanged(keyID)
+                        && priorities.get(keyID).isWrittenAt(lowestWritten)) {
+                    publish(getPublishedKey(keyID), value, logTable.timestamp());
                 }
             }
+
+            for (PublishedKey publishedKey : pendingKeys) {
+                publishedKey.isPending = false;
+            }
+            pendingKeys.clear();
+        } else {
+            flushPendingKeys(logTable.timestamp());
+        }
+    }
+
+    private PublishedKey getPublishedKey(int keyID) {
+        if (keyID >= publishedKeys.length) {
+            publishedKeys = Arrays.copyOf(publishedKeys, Math.max(keyID + 1, publishedKeys.length * 2));
+        }
+
+        PublishedKey publishedKey = publishedKeys[keyID];
+        if (publishedKey == null) {
+            publishedKey = new PublishedKey(LogKeyRegistry.getKey(keyID));
+            publishedKeys[keyID] = publishedKey;
+        }
+
+        // Resolve the policy again if any have been added
+        int currentPolicyVersion = policyVersion;
+        if (publishedKey.policyVersion != currentPolicyVersion) {
+            publishedKey.policy = findPolicy(publishedKey.key);
+            publishedKey.policyVersion = currentPolicyVersion;
+        }
+
+        return publishedKey;
+    }
+
+    private NTPublishPolicy findPolicy(String key) {
+        NTPublishPolicy policy = NTPublishPolicy.fullRate;
+        int matchLength = -1;
+
+        for (Map.Entry<String, NTPublishPolicy> entry : policies.entrySet()) {
+            String prefix = entry.getKey();
+            if (key.startsWith(prefix) && prefix.length() > matchLength) {
+                policy = entry.getValue();
+                matchLength = prefix.length();
+            }
+        }
+
+        return policy;
+    }
+
+    /**
+     * Publishes a changed value if its policy allows, otherwise holds it until the policy allows.
+     */
+    private void offer(PublishedKey publishedKey, LogValue value, long timestamp) {
+        // Changes within the deadband are not published until the next keyframe
+        if (publishedKey.hasPublished && !publishedKey.policy.exceedsMinDelta(publishedKey.lastPublished, value)) {
+            return;
+        }
+
+        if (publishedKey.canPublish(cycle, timestamp)) {
+            publish(publishedKey, value, timestamp);
+
+            // Any held value is now out of date, the pending list drops it on the next flush
+            publishedKey.isPending = false;
+        } else {
+            publishedKey.pendingValue.setFrom(value);
+
+            if (!publishedKey.isPending) {
+                publishedKey.isPending = true;
+                pendingKeys.add(publishedKey);
+            }
+        }
+    }
+
+    private void flushPendingKeys(long timestamp) {
+        for (int i = pendingKeys.size() - 1; i >= 0; i--) {
+            PublishedKey publishedKey = pendingKeys.get(i);
+
+            if (publishedKey.isPending && !publishedKey.canPublish(cycle, timestamp)) continue;
+
+            if (publishedKey.isPending) {
+                LogValue pendingValue = publishedKey.pendingValue;
+                publish(publishedKey, pendingValue, pendingValue.timestamp != 0 ? pendingValue.timestamp : timestamp);
+                publishedKey.isPending = false;
+            }
+
+            // Swap with the last key to remove without shifting
+            int lastIndex = pendingKeys.size() - 1;
+            pendingKeys.set(i, pendingKeys.get(lastIndex));
+            pendingKeys.remove(lastIndex);
+        }
+    }
+
+    private void publish(PublishedKey publishedKey, LogValue value, long timestamp) {
+        // Create publisher if necessary
+        GenericPublisher publisher = publishedKey.publisher;
+        if (publisher == null) {
+            publisher = nt.getTopic(publishedKey.key)
+                    .genericPublish(value.type.getNT4Type(), PubSubOption.sendAll(true));
+            publishedKey.publisher = publisher;
+        }
+
+        set(publisher, value, timestamp);
+
+        publishedKey.lastPublished.setFrom(value);
+        publishedKey.hasPublished = true;
+        publishedKey.lastPublishCycle = cycle;
+        publishedKey.lastPublishTimestamp = timestamp;
+    }
+
+    /**
+     * Sets a publisher to a value of the publisher's type.
+     */
+    static void set(GenericPublisher publisher, LogValue value, long timestamp) {
+        switch (value.type) {
+            case Raw:
+                publisher.setRaw(value.getRaw(), timestamp);
+                break;
+            case Boolean:
+                publisher.setBoolean(value.getBoolean(), timestamp);
+                break;
+            case BooleanArray:
+                publisher.setBooleanArray(value.getBooleanArray(), timestamp);
+                break;
+            case Integer:
+                publisher.setInteger(value.getInteger(), timestamp);
+                break;
+            case IntegerArray:
+                publisher.setIntegerArray(value.getIntegerArray(), timestamp);
+                break;
+            case Float:
+                publisher.setFloat(value.getFloat(), timestamp);
+                break;
+            case FloatArray:
+                publisher.setFloatArray(value.getFloatArray(), timestamp);
+                break;
+            case Double:
+                publisher.setDouble(value.getDouble(), timestamp);
+                break;
+            case DoubleArray:
+                publisher.setDoubleArray(value.getDoubleArray(), timestamp);
+                break;
+            case String:
+                publisher.setString(value.getString(), timestamp);
+                break;
+            case StringArray:
+                publisher.setStringArray(value.getStringArray(), timestamp);
+                break;
+        }
+    }
+
+    private static class PublishedKey {
+        private final String key;
+        private GenericPublisher publisher;
+
+        private NTPublishPolicy policy = NTPublishPolicy.fullRate;
+        private int policyVersion = -1;
+
+        private final LogValue lastPublished = new LogValue();
+        private boolean hasPublished = false;
+        private int lastPublishCycle;
+        private long lastPublishTimestamp;
+
+        private final LogValue pendingValue = new LogValue();
+        private boolean isPending = false;
+
+        private PublishedKey(String key) {
+            this.key = key;
+        }
+
+        private boolean canPublish(int cycle, long timestamp) {
+            return !hasPublished
+                    || (cycle - lastPublishCycle >= policy.decimation
+                            && timestamp - lastPublishTimestamp >= policy.getMinimumPeriod());
         }
     }
 }
@@ -0,0 +1,216 @@
+package frc.lib.logging;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.wpilibj.DriverStation;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A log output split into segments that are rotated by size or age. Closed segments are compressed, and the oldest
+ * segments are deleted once the directory exceeds its budget. Closing, compressing, and deleting happen on a low
+ * priority background thread, so rotating never blocks the logging thread.
+ *
+ * <p>Everything except the constructor must only be called from the logging thread that writes to the log.
+ */
+public class RotatingDataLog {
+    private static final String extension = ".wpilog";
+    private static final String compressedExtension = ".wpilog.gz";
+
+    // Approximate size of a record header, which is not included in a value's size
+    private static final int recordOverhead = 12;
+
+    private final File directory;
+    private final String prefix;
+    private final long maxSegmentBytes;
+    private final long maxSegmentMicros;
+    private final long budgetBytes;
+
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Log Compression");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private DataLog log = null;
+    private File segmentFile = null;
+    private long segmentBytes = 0;
+    private long segmentStartTime = 0;
+    private int segmentCount = 0;
+
+    /**
+     * @param directory The directory to write segments to, created if it does not exist.
+     * @param prefix The start of each segment's file name. Segments from other sources in the same directory are not
+     * counted or deleted.
+     * @param maxSegmentBytes The approximate size at which a segment is closed.
+     * @param maxSegmentSeconds The age at which a segment is closed.
+     * @param budgetBytes The total size of this log's segments in the directory, above which the oldest are deleted.
+     */
+    public RotatingDataLog(
+            String directory, String prefix, long maxSegmentBytes, double maxSegmentSeconds, long budgetBytes) {
+        this.directory = new File(directory);
+        this.prefix = prefix;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentMicros = (long) (maxSegmentSeconds * 1e6);
+        this.budgetBytes = budgetBytes;
+
+        this.directory.mkdirs();
+
+        // Compress segments left behind by a previous run that did not close them
+        File[] leftovers = this.directory.listFiles(
+                (dir, name) -> name.startsWith(prefix) && name.endsWith(extension));
+        if (leftovers != null) {
+            for (File leftover : leftovers) {
+                background.execute(() -> compress(leftover));
+            }
+        }
+
+        background.execute(() -> enforceBudget(null));
+    }
+
+    /**
+     * @return The directory logs are stored in on a roboRIO, a USB drive if one is mounted.
+     */
+    public static String getDefaultDirectory() {
+        return new File("/u").isDirectory() ? "/u/logs" : "/home/lvuser/logs";
+    }
+
+    /**
+     * @return If the file is a segment that was compressed once it was closed.
+     */
+    public static boolean isCompressed(String path) {
+        return path.endsWith(compressedExtension);
+    }
+
+    /**
+     * Reads a compressed segment into memory, as the wpilog it was before it was compressed.
+     */
+    static ByteBuffer decompress(String path) throws IOException {
+        try (InputStream in = new GZIPInputStream(new FileInputStream(path))) {
+            return ByteBuffer.wrap(in.readAllBytes());
+        }
+    }
+
+    /**
+     * @return The current segment's log, only available once {@link #rotateIfNeeded(long)} has opened a segment.
+     */
+    DataLog getLog() {
+        return log;
+    }
+
+    /**
+     * Counts a value written to the current segment towards its size.
+     */
+    void recordWrite(LogValue value) {
+        segmentBytes += value.getSize() + recordOverhead;
+    }
+
+    /**
+     * Starts a new segment if the current one is too large or too old. Entries must be started again in the new
+     * segment, and every value should be written again so the segment can be read on its own.
+     *
+     * @param timestamp The current time in microseconds.
+     * @return If a new segment was started.
+     */
+    boolean rotateIfNeeded(long timestamp) {
+        if (log == null) {
+            openSegment(timestamp);
+            return true;
+        }
+
+        if (segmentBytes < maxSegmentBytes && timestamp - segmentStartTime < maxSegmentMicros) return false;
+
+        DataLog closedLog = log;
+        File closedFile = segmentFile;
+
+        openSegment(timestamp);
+
+        // Closing waits for the log's own thread to finish writing, so it is left to the background thread
+        File activeFile = segmentFile;
+        background.execute(() -> {
+            closedLog.close();
+            compress(closedFile);
+            enforceBudget(activeFile);
+        });
+
+        return true;
+    }
+
+    private void openSegment(long timestamp) {
+        // The clock may not be set before the driver station connects, so the count keeps names unique and ordered
+        String time = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        String name;
+
+        do {
+            name = String.format("%s_%s_%03d", prefix, time, segmentCount++);
+        } while (new File(directory, name + extension).exists()
+                || new File(directory, name + compressedExtension).exists());
+
+        log = new DataLog(directory.getPath(), name + extension);
+        segmentFile = new File(directory, name + extension);
+        segmentBytes = 0;
+        segmentStartTime = timestamp;
+    }
+
+    private void compress(File file) {
+        File compressedFile = new File(file.getPath() + ".gz");
+
+        try (InputStream in = new FileInputStream(file);
+                OutputStream out = new FastGZIPOutputStream(new FileOutputStream(compressedFile))) {
+            in.transferTo(out);
+        } catch (IOException exception) {
+            DriverStation.reportWarning("Could not compress " + file + ": " + exception.getMessage(), false);
+            compressedFile.delete();
+            return;
+        }
+
+        file.delete();
+    }
+
+    /**
+     * Deletes the oldest segments until the directory is within budget. The active segment is never deleted.
+     */
+    private void enforceBudget(File activeFile) {
+        File[] segments = directory.listFiles((dir, name) ->
+                name.startsWith(prefix) && (name.endsWith(extension) || name.endsWith(compressedExtension)));
+        if (segments == null) return;
+
+        Arrays.sort(segments, Comparator.comparingLong(File::lastModified));
+
+        long totalBytes = 0;
+        for (File segment : segments) {
+            totalBytes += segment.length();
+        }
+
+        for (int i = 0; i < segments.length && totalBytes > budgetBytes; i++) {
+            if (segments[i].equals(activeFile)) continue;
+
+            long length = segments[i].length();
+            if (segments[i].delete()) totalBytes -= length;
+        }
+    }
+
+    /**
+     * Compresses with the fastest level, logs compress well regardless and the roboRIO has little CPU to spare.
+     */
+    private static class FastGZIPOutputStream extends GZIPOutputStream {
+        FastGZIPOutputStream(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package frc.lib.logging;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import frc.lib.logging.LogHandle.BooleanHandle;
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.LogHandle.IntegerHandle;
+import frc.lib.logging.LogHandle.StringHandle;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Logs the JVM's garbage collection, heap, allocation, and CPU use every loop, along with the loop's period, so
+ * loop overruns can be matched against collections. Must be updated once per loop from the main thread.
+ *
+ * <p>Collection counts and times are polled so they line up with the loop, while the duration of individual pauses
+ * comes from collection notifications, which arrive on their own thread.
+ */
+public class RuntimeMonitor {
+    private static final String prefix = "/Runtime/";
+
+    private final List<GarbageCollectorMXBean> garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final Runtime runtime = Runtime.getRuntime();
+
+    // Null if the JVM cannot measure the current thread's allocations
+    private final com.sun.management.ThreadMXBean allocations;
+
+    // Written by the notification thread
+    private final AtomicLong maxPauseMillis = new AtomicLong(0);
+    private volatile String lastCollection = "";
+
+    private long lastLoopTime = 0;
+    private long lastCollectionCount = 0;
+    private long lastCollectionMillis = 0;
+    private long lastCPUTime = 0;
+    private long lastAllocatedBytes = 0;
+
+    // Durations in milliseconds, memory in megabytes, and allocations per loop in kilobytes
+    private final DoubleHandle loopPeriodHandle = Logger.doubleHandle(prefix + "Loop Period");
+    private final BooleanHandle gcInLoopHandle = Logger.booleanHandle(prefix + "GC In Loop");
+    private final IntegerHandle gcCountHandle = Logger.integerHandle(prefix + "GC Count");
+    private final DoubleHandle gcTimeHandle = Logger.doubleHandle(prefix + "GC Time");
+    private final DoubleHandle gcMaxPauseHandle = Logger.doubleHandle(prefix + "GC Max Pause");
+    private final StringHandle lastCollectionHandle = Logger.stringHandle(prefix + "Last GC");
+    private final DoubleHandle heapUsedHandle = Logger.doubleHandle(prefix + "Heap Used");
+    private final DoubleHandle heapCommittedHandle = Logger.doubleHandle(prefix + "Heap Committed");
+    private final DoubleHandle heapMaxHandle = Logger.doubleHandle(prefix + "Heap Max");
+    private final DoubleHandle allocatedHandle = Logger.doubleHandle(prefix + "Main Thread Allocated");
+    private final DoubleHandle allocationRateHandle = Logger.doubleHandle(prefix + "Main Thread Allocation Rate");
+    private final DoubleHandle cpuTimeHandle = Logger.doubleHandle(prefix + "Main Thread CPU Time");
+    private final DoubleHandle cpuUsageHandle = Logger.doubleHandle(prefix + "Main Thread CPU Usage");
+
+    public RuntimeMonitor() {
+        allocations = threads instanceof com.sun.management.ThreadMXBean
+                        && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) threads
+                : null;
+
+        if (allocations != null) allocations.setThreadAllocatedMemoryEnabled(true);
+        if (threads.isCurrentThreadCpuTimeSupported()) threads.setThreadCpuTimeEnabled(true);
+
+        for (GarbageCollectorMXBean garbageCollector : garbageCollectors) {
+            lastCollectionCount += Math.max(garbageCollector.getCollectionCount(), 0);
+            lastCollectionMillis += Math.max(garbageCollector.getCollectionTime(), 0);
+
+            if (garbageCollector instanceof NotificationEmitter) {
+                ((NotificationEmitter) garbageCollector).addNotificationListener(
+                        (notification, handback) -> {
+                            if (!notification
+                                    .getType()
+                                    .equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                                return;
+                            }
+
+                            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                                    (CompositeData) notification.getUserData());
+
+                            maxPauseMillis.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+                            lastCollection = info.getGcName() + " (" + info.getGcCause() + ")";
+                        },
+                        null,
+                        null);
+            }
+        }
+    }
+
+    /**
+     * Logs everything measured since the last update.
+     */
+    public void update() {
+        long loopTime = System.nanoTime();
+        double loopPeriod = lastLoopTime == 0 ? 0 : (loopTime - lastLoopTime) / 1e9;
+        lastLoopTime = loopTime;
+
+        loopPeriodHandle.set(loopPeriod * 1000);
+
+        // Collections polled since the last loop, rather than notified, so they are attributed to the right loop
+        long collectionCount = 0;
+        long collectionMillis = 0;
+
+        for (int i = 0; i < garbageCollectors.size(); i++) {
+            collectionCount += Math.max(garbageCollectors.get(i).getCollectionCount(), 0);
+            collectionMillis += Math.max(garbageCollectors.get(i).getCollectionTime(), 0);
+        }
+
+        gcInLoopHandle.set(collectionCount != lastCollectionCount);
+        gcCountHandle.set(collectionCount);
+        gcTimeHandle.set(collectionMillis - lastCollectionMillis);
+        gcMaxPauseHandle.set(maxPauseMillis.getAndSet(0));
+        lastCollectionHandle.set(lastCollection);
+
+        lastCollectionCount = collectionCount;
+        lastCollectionMillis = collectionMillis;
+
+        // The runtime's totals avoid allocating the usage objects the memory bean returns
+        long totalMemory = runtime.totalMemory();
+        heapUsedHandle.set((totalMemory - runtime.freeMemory()) / 1e6);
+        heapCommittedHandle.set(totalMemory / 1e6);
+        heapMaxHandle.set(runtime.maxMemory() / 1e6);
+
+        if (allocations != null) {
+            long allocatedBytes = allocations.getCurrentThreadAllocatedBytes();
+            long allocated = lastAllocatedBytes == 0 ? 0 : allocatedBytes - lastAllocatedBytes;
+            lastAllocatedBytes = allocatedBytes;
+
+            allocatedHandle.set(allocated / 1e3);
+            allocationRateHandle.set(loopPeriod > 0 ? allocated / 1e6 / loopPeriod : 0);
+        }
+
+        if (threads.isCurrentThreadCpuTimeSupported()) {
+            long cpuTime = threads.getCurrentThreadCpuTime();
+            long cpuUsed = lastCPUTime == 0 ? 0 : cpuTime - lastCPUTime;
+            lastCPUTime = cpuTime;
+
+            cpuTimeHandle.set(cpuUsed / 1e6);
+            cpuUsageHandle.set(loopPeriod > 0 ? cpuUsed / 1e9 / loopPeriod * 100 : 0);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package frc.lib.logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line extractor for wpilogs built on {@link WpilogIndex}. Either lists the keys of a log, or writes the
+ * records of one or more numeric keys as CSV rows of key, timestamp in seconds and value. Compressed segments from
+ * {@link RotatingDataLog} are read as well.
+ *
+ * <pre>
+ * ./gradlew extractLog --args="[log] --list"
+ * ./gradlew extractLog --args="[log] [key]... [--start seconds] [--end seconds]"
+ * </pre>
+ */
+public final class WpilogExtract {
+    private WpilogExtract() {}
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: WpilogExtract <log> --list");
+            System.err.println("       WpilogExtract <log> <key>... [--start <seconds>] [--end <seconds>]");
+            System.exit(1);
+        }
+
+        long startTime = Long.MIN_VALUE;
+        long endTime = Long.MAX_VALUE;
+        boolean list = false;
+        List<String> keys = new ArrayList<>();
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--list" -> list = true;
+                case "--start" -> startTime = (long) (Double.parseDouble(args[++i]) * 1e6);
+                case "--end" -> endTime = (long) (Double.parseDouble(args[++i]) * 1e6);
+                default -> keys.add(args[i]);
+            }
+        }
+
+        long indexStartTime = System.nanoTime();
+        WpilogIndex index = new WpilogIndex(args[0]);
+        System.err.printf(
+                "Indexed %d records of %d keys in %.1f ms%n",
+                index.getRecordCount(), index.getKeys().size(), (System.nanoTime() - indexStartTime) / 1e6);
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+
+        if (list) {
+            for (String key : index.getKeys()) {
+                out.write(key + "," + index.getType(key) + "," + index.getRecordCount(key) + "\n");
+            }
+        } else {
+            out.write("key,timestamp,value\n");
+
+            for (String key : keys) {
+                if (index.getType(key) == null) {
+                    System.err.println("Skipping " + key + ", it is not in the log");
+                    continue;
+                }
+
+                long[] timestamps = index.getTimestamps(key, startTime, endTime);
+                double[] values = index.getDoubles(key, startTime, endTime);
+
+                for (int i = 0; i < timestamps.length; i++) {
+                    out.write(key);
+                    out.write(',');
+                    out.write(Double.toString(timestamps[i] / 1e6));
+                    out.write(',');
+                    out.write(Double.toString(values[i]));
+                    out.write('\n');
+                }
+            }
+        }
+
+        out.flush();
+    }
+}
@@ -0,0 +1,402 @@
+package frc.lib.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Memory maps a wpilog and indexes the records of every entry in a single pass, so that time ranges of a single key
+ * can be read without scanning the rest of the file. Values are returned as primitive arrays and no objects are
+ * created per record. Timestamps are in microseconds, as they are stored in the log.
+ */
+public class WpilogIndex {
+    private static final byte[] magic = "WPILOG".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer buffer;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private long recordCount = 0;
+
+    /**
+     * @param path A wpilog, or a segment compressed by {@link RotatingDataLog}, which is decompressed into memory
+     * instead of being mapped.
+     */
+    public WpilogIndex(String path) throws IOException {
+        buffer = RotatingDataLog.isCompressed(path) ? RotatingDataLog.decompress(path) : map(path);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (!isValid()) throw new IOException("Not a wpilog: " + path);
+
+        buildIndex();
+    }
+
+    private static ByteBuffer map(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Logs larger than 2 GB are not supported: " + path);
+            }
+
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private boolean isValid() {
+        if (buffer.limit() < 12) return false;
+
+        for (int i = 0; i < magic.length; i++) {
+            if (buffer.get(i) != magic[i]) return false;
+        }
+
+        // Only version 1.0 is supported
+        return buffer.getShort(6) == 0x0100;
+    }
+
+    private void buildIndex() {
+        // Entry ids are small and dense, so live entries are looked up by array
+        Entry[] entriesByID = new Entry[64];
+
+        int limit = buffer.limit();
+        int position = 12 + buffer.getInt(8);
+
+        while (position < limit) {
+            int header = buffer.get(position) & 0xff;
+            int idLength = (header & 0x3) + 1;
+            int sizeLength = ((header >> 2) & 0x3) + 1;
+            int timestampLength = ((header >> 4) & 0x7) + 1;
+            int headerLength = 1 + idLength + sizeLength + timestampLength;
+
+            // Stop at a record truncated by the robot losing power
+            if (position + headerLength > limit) break;
+
+            int id = (int) readVariable(position + 1, idLength);
+            int size = (int) readVariable(position + 1 + idLength, sizeLength);
+            long timestamp = readVariable(position + 1 + idLength + sizeLength, timestampLength);
+
+            int payload = position + headerLength;
+            if (size < 0 || payload + size > limit) break;
+
+            if (id == 0) {
+                if (size >= 5 && buffer.get(payload) == 0) {
+                    Entry entry = readStartRecord(payload, size);
+                    int entryID = buffer.getInt(payload + 1);
+
+                    if (entry != null && entryID > 0) {
+                        if (entryID >= entriesByID.length) {
+                            Entry[] newEntriesByID = new Entry[Math.max(entryID + 1, entriesByID.length * 2)];
+                            System.arraycopy(entriesByID, 0, newEntriesByID, 0, entriesByID.length);
+                            entriesByID = newEntriesByID;
+                        }
+
+                        entriesByID[entryID] = entry;
+                    }
+                } else if (size >= 5 && buffer.get(payload) == 1) {
+                    int entryID = buffer.getInt(payload + 1);
+                    if (entryID > 0 && entryID < entriesByID.length) entriesByID[entryID] = null;
+                }
+            } else if (id < entriesByID.length && entriesByID[id] != null) {
+                entriesByID[id].add(payload, size, timestamp);
+                recordCount++;
+            }
+
+            position = payload + size;
+        }
+
+        for (Entry entry : entries.values()) {
+            entry.sort();
+        }
+    }
+
+    private Entry readStartRecord(int payload, int size) {
+        int end = payload + size;
+        int position = payload + 5;
+
+        if (position + 4 > end) return null;
+        int nameLength = buffer.getInt(position);
+        position += 4;
+        if (nameLength < 0 || position + nameLength > end) return null;
+        String name = readString(position, nameLength);
+        position += nameLength;
+
+        if (position + 4 > end) return null;
+        int typeLength = buffer.getInt(position);
+        position += 4;
+        if (typeLength < 0 || position + typeLength > end) return null;
+        String type = readString(position, typeLength);
+
+        // An entry restarted with the same name and type continues the same series
+        Entry entry = entries.get(name);
+        if (entry == null || !entry.type.equals(type)) {
+            entry = new Entry(name, type);
+            entries.put(name, entry);
+        }
+
+        return entry;
+    }
+
+    private long readVariable(int position, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (buffer.get(position + i) & 0xffL) << (i * 8);
+        }
+
+        return value;
+    }
+
+    private String readString(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The names of every entry in the log, in the order they were started
+     */
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * @return The type string of the key, or null if the key is not in the log
+     */
+    public String getType(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.type;
+    }
+
+    /**
+     * @return The number of records of the key in the whole log
+     */
+    public int getRecordCount(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? 0 : entry.count;
+    }
+
+    /**
+     * @return The number of data records in the log across all keys
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return The timestamps of the key's records between the start and end time, inclusive
+     */
+    public long[] getTimestamps(String key, long startTime, long endTime) {
+        Entry entry = getEntry(key);
+        int start = entry.lowerBound(startTime);
+        int end = entry.upperBound(endTime);
+
+        long[] timestamps = new long[Math.max(end - start, 0)];
+        System.arraycopy(entry.timestamps, start, timestamps, 0, timestamps.length);
+
+        return timestamps;
+    }
+
+    /**
+     * Reads a numeric key as doubles. Integers, floats and booleans are converted.
+     *
+     * @return The values of the key's records between the start and end time, inclusive
+     */
+    public double[] getDoubles(String key, long startTime, long endTime) {
+        Entry entry = getEntry(key);
+        int start = entry.lowerBound(startTime);
+        int end = entry.upperBound(endTime);
+
+        double[] values = new double[Math.max(end - start, 0)];
+
+        switch (entry.type) {
+            case "double":
+                for (int i = 0; i < values.length; i++) values[i] = buffer.getDouble(entry.offsets[start + i]);
+                break;
+            case "float":
+                for (int i = 0; i < values.length; i++) values[i] = buffer.getFloat(entry.offsets[start + i]);
+                break;
+            case "int64":
+                for (int i = 0; i < values.length; i++) values[i] = buffer.getLong(entry.offsets[start + i]);
+                break;
+            case "boolean":
+                for (int i = 0; i < values.length; i++) values[i] = buffer.get(entry.offsets[start + i]) != 0 ? 1 : 0;
+                break;
+            default:
+                throw new IllegalArgumentException(key + " is not numeric, its type is " + entry.type);
+        }
+
+        return values;
+    }
+
+    /**
+     * @return The values of an int64 key's records between the start and end time, inclusive
+     */
+    public long[] getIntegers(String key, long startTime, long endTime) {
+        Entry entry = getEntry(key);
+        if (!entry.type.equals("int64")) {
+            throw new IllegalArgumentException(key + " is not an int64, its type is " + entry.type);
+        }
+
+        int start = entry.lowerBound(startTime);
+        int end = entry.upperBound(endTime);
+
+        long[] values = new long[Math.max(end - start, 0)];
+        for (int i = 0; i < values.length; i++) values[i] = buffer.getLong(entry.offsets[start + i]);
+
+        return values;
+    }
+
+    /**
+     * @return The values of a boolean key's records between the start and end time, inclusive
+     */
+    public boolean[] getBooleans(String key, long startTime, long endTime) {
+        Entry entry = getEntry(key);
+        if (!entry.type.equals("boolean")) {
+            throw new IllegalArgumentException(key + " is not a boolean, its type is " + entry.type);
+        }
+
+        int start = entry.lowerBound(startTime);
+        int end = entry.upperBound(endTime);
+
+        boolean[] values = new boolean[Math.max(end - start, 0)];
+        for (int i = 0; i < values.length; i++) values[i] = buffer.get(entry.offsets[start + i]) != 0;
+
+        return values;
+    }
+
+    /**
+     * Returns a read only view of a single record's payload, for keys that are not numeric.
+     *
+     * @param index The index of the record within all of the key's records
+     */
+    public ByteBuffer getPayload(String key, int index) {
+        Entry entry = getEntry(key);
+        if (index < 0 || index >= entry.count) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + key + " does not exist");
+        }
+
+        return buffer.slice(entry.offsets[index], entry.sizes[index]).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return The index of the key's first record at or after the timestamp
+     */
+    public int indexOf(String key, long timestamp) {
+        return getEntry(key).lowerBound(timestamp);
+    }
+
+    private Entry getEntry(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) throw new IllegalArgumentException(key + " is not in the log");
+
+        return entry;
+    }
+
+    private static class Entry {
+        public final String name;
+        public final String type;
+
+        public int count = 0;
+
+        // Payload offsets and sizes, parallel to the timestamps
+        public int[] offsets = new int[16];
+        public int[] sizes = new int[16];
+        public long[] timestamps = new long[16];
+
+        private boolean isSorted = true;
+
+        public Entry(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public void add(int offset, int size, long timestamp) {
+            if (count == offsets.length) {
+                int capacity = count * 2;
+                int[] newOffsets = new int[capacity];
+                int[] newSizes = new int[capacity];
+                long[] newTimestamps = new long[capacity];
+                System.arraycopy(offsets, 0, newOffsets, 0, count);
+                System.arraycopy(sizes, 0, newSizes, 0, count);
+                System.arraycopy(timestamps, 0, newTimestamps, 0, count);
+                offsets = newOffsets;
+                sizes = newSizes;
+                timestamps = newTimestamps;
+            }
+
+            if (count > 0 && timestamp < timestamps[count - 1]) isSorted = false;
+
+            offsets[count] = offset;
+            sizes[count] = size;
+            timestamps[count] = timestamp;
+            count++;
+        }
+
+        /**
+         * Orders the records by timestamp. Records are almost always written in order, so an insertion sort only has
+         * to move the few that are not.
+         */
+        public void sort() {
+            if (isSorted) return;
+
+            for (int i = 1; i < count; i++) {
+                long timestamp = timestamps[i];
+                int offset = offsets[i];
+                int size = sizes[i];
+
+                int j = i - 1;
+                while (j >= 0 && timestamps[j] > timestamp) {
+                    timestamps[j + 1] = timestamps[j];
+                    offsets[j + 1] = offsets[j];
+                    sizes[j + 1] = sizes[j];
+                    j--;
+                }
+
+                timestamps[j + 1] = timestamp;
+                offsets[j + 1] = offset;
+                sizes[j + 1] = size;
+            }
+
+            isSorted = true;
+        }
+
+        /**
+         * @return The index of the first record at or after the timestamp
+         */
+        public int lowerBound(long timestamp) {
+            int low = 0;
+            int high = count;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (timestamps[middle] < timestamp) low = middle + 1;
+                else high = middle;
+            }
+
+            return low;
+        }
+
+        /**
+         * @return The index after the last record at or before the timestamp
+         */
+        public int upperBound(long timestamp) {
+            int low = 0;
+            int high = count;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (timestamps[middle] <= timestamp) low = middle + 1;
+                else high = middle;
+            }
+
+            return low;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package frc.lib.loops;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.loops.LoopProfiler.Section;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the command scheduler while timing each scheduled command's execute, so a slow loop can be traced to the
+ * command that caused it. Sections are logged by {@link LoopProfiler} under Commands/ with each command's name, and
+ * under CommandScheduler/ for the rest of the scheduler.
+ *
+ * <p>The scheduler has no hook before each execute, so each command is timed from the end of the previous command's
+ * execute, or its end if it finished. A command's time also includes the previous command's isFinished.
+ */
+public class CommandSchedulerProfiler {
+    private final CommandScheduler scheduler;
+
+    private final Section subsystemsSection = LoopProfiler.section("CommandScheduler/Subsystems And Buttons");
+    private final Section totalSection = LoopProfiler.section("CommandScheduler/Total");
+
+    // Keyed by command name, so the section's full name is only built once
+    private final Map<String, Section> commandSections = new HashMap<>();
+
+    private long lastMark = 0;
+
+    /**
+     * Must be created after every trigger is bound, so the subsystems are timed up to the end of the button loop.
+     */
+    public CommandSchedulerProfiler(CommandScheduler scheduler) {
+        this.scheduler = scheduler;
+
+        // Runs last in the button loop, which polls after every subsystem's periodic and before any command
+        scheduler.getActiveButtonLoop().bind(() -> subsystemsSection.record(mark()));
+
+        scheduler.onCommandExecute(this::recordExecute);
+        scheduler.onCommandFinish(command -> mark());
+        scheduler.onCommandInterrupt(command -> mark());
+    }
+
+    public void run() {
+        long startTime = System.nanoTime();
+        lastMark = startTime;
+
+        scheduler.run();
+
+        totalSection.record(System.nanoTime() - startTime);
+    }
+
+    private void recordExecute(Command command) {
+        long elapsed = mark();
+
+        Section section = commandSections.get(command.getName());
+        if (section == null) {
+            section = LoopProfiler.section("Commands/" + command.getName());
+            commandSections.put(command.getName(), section);
+        }
+
+        section.record(elapsed);
+    }
+
+    /**
+     * @return The time since the last mark in nanoseconds.
+     */
+    private long mark() {
+        long time = System.nanoTime();
+        long elapsed = time - lastMark;
+        lastMark = time;
+
+        return elapsed;
+    }
+}
@@ -0,0 +1,89 @@
+package frc.lib.loops;
+
+import frc.lib.logging.LatencyHistogram;
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.Logger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a histogram of execution times for each named section of the main loop, such as a command's execute or a
+ * subsystem's update. Recording does not allocate once a section exists, and percentiles are only logged about once
+ * a second. Must only be used from the main thread.
+ */
+public class LoopProfiler {
+    private static final int publishInterval = 50; // ~ 1 second of loops
+
+    private static final Map<String, Section> sections = new HashMap<>();
+    private static final List<Section> sectionList = new ArrayList<>();
+
+    private static int loops = 0;
+
+    /**
+     * @return The section with the name, created the first time the name is used.
+     */
+    public static Section section(String name) {
+        Section section = sections.get(name);
+
+        if (section == null) {
+            section = new Section(name);
+            sections.put(name, section);
+            sectionList.add(section);
+        }
+
+        return section;
+    }
+
+    /**
+     * Counts a loop, logging every section's execution times since the last log once enough loops have passed.
+     */
+    public static void update() {
+        if (++loops < publishInterval) return;
+        loops = 0;
+
+        for (int i = 0; i < sectionList.size(); i++) {
+            sectionList.get(i).publish();
+        }
+    }
+
+    public static class Section {
+        private final LatencyHistogram executionTimes = new LatencyHistogram();
+        private long worstExecutionTime = 0;
+
+        // Execution times in milliseconds
+        private final DoubleHandle p50Handle;
+        private final DoubleHandle p99Handle;
+        private final DoubleHandle maxHandle;
+        private final DoubleHandle worstHandle;
+
+        private Section(String name) {
+            String prefix = "/Profiler/" + name + "/";
+            p50Handle = Logger.doubleHandle(prefix + "P50");
+            p99Handle = Logger.doubleHandle(prefix + "P99");
+            maxHandle = Logger.doubleHandle(prefix + "Max");
+            worstHandle = Logger.doubleHandle(prefix + "Worst");
+        }
+
+        /**
+         * @param executionTime How long the section took in nanoseconds.
+         */
+        public void record(long executionTime) {
+            executionTimes.record(executionTime);
+            worstExecutionTime = Math.max(worstExecutionTime, executionTime);
+        }
+
+        private void publish() {
+            // Sections that did not run keep their last values
+            if (executionTimes.getCount() == 0) return;
+
+            p50Handle.set(executionTimes.getPercentile(50) / 1e6);
+            p99Handle.set(executionTimes.getPercentile(99) / 1e6);
+            maxHandle.set(executionTimes.getMax() / 1e6);
+            worstHandle.set(worstExecutionTime / 1e6);
+
+            executionTimes.reset();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package frc.lib.loops;
+
+import edu.wpi.first.hal.HALUtil;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Threads;
+import frc.lib.logging.LatencyHistogram;
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.LogHandle.IntegerHandle;
+import frc.lib.logging.Logger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs updates faster or slower than the main loop. Updates with the same rate form a group that runs in order on
+ * its own notifier thread, at a real-time priority that is higher for faster groups.
+ *
+ * <p>Updates run off the main thread, so any state they share with it must be handed off safely, such as through a
+ * {@link TripleBuffer}, a volatile reference to an immutable object, or a lock.
+ */
+public class MultiRateExecutor {
+    private final List<RateGroup> groups = new ArrayList<>();
+
+    private final int basePriority;
+
+    private boolean isStarted = false;
+
+    /**
+     * @param basePriority The real-time priority of the slowest group, each faster group is one higher. Should be
+     * below the HAL's notifier thread, which runs at 40.
+     */
+    public MultiRateExecutor(int basePriority) {
+        this.basePriority = basePriority;
+    }
+
+    /**
+     * Adds an update to the group for its rate. Must be called before {@link #start()}.
+     *
+     * @param name The name of the update, used in errors.
+     * @param updatable The update to run.
+     * @param rate How many times a second to run the update.
+     */
+    public void schedule(String name, Updatable updatable, double rate) {
+        if (isStarted) throw new IllegalStateException("Cannot schedule " + name + " after the executor has started");
+
+        RateGroup group = null;
+        for (RateGroup existingGroup : groups) {
+            if (existingGroup.rate == rate) group = existingGroup;
+        }
+
+        if (group == null) {
+            group = new RateGroup(rate);
+            groups.add(group);
+        }
+
+        group.updatables.add(updatable);
+    }
+
+    /**
+     * Starts a notifier for every group.
+     */
+    public void start() {
+        isStarted = true;
+
+        // Rate monotonic priorities, faster groups preempt slower ones
+        groups.sort(Comparator.comparingDouble(group -> group.rate));
+
+        for (int i = 0; i < groups.size(); i++) {
+            groups.get(i).start(basePriority + i);
+        }
+    }
+
+    /**
+     * Runs each group as many times as it would have run during a main loop, on the calling thread. Used instead of
+     * {@link #start()} when running without the robot's timing, such as when replaying.
+     *
+     * @param loopPeriod The period of the main loop in seconds.
+     */
+    public void runHeadless(double loopPeriod) {
+        for (RateGroup group : groups) {
+            group.runHeadless(loopPeriod);
+        }
+    }
+
+    /**
+     * Logs each group's jitter, execution time, and overruns. Must only be called from the main thread.
+     */
+    public void logMetrics() {
+        for (RateGroup group : groups) {
+            group.logMetrics();
+        }
+    }
+
+    private static String formatRate(double rate) {
+        return rate == Math.rint(rate) ? Long.toString((long) rate) : Double.toString(rate);
+    }
+
+    private static class RateGroup {
+        private final double rate;
+        private final long periodMicros;
+
+        private final List<Updatable> updatables = new ArrayList<>();
+
+        private Notifier notifier;
+        private int priority;
+
+        // Only accessed by the group's thread
+        private boolean isPrioritySet = false;
+        private long expectedTime = 0;
+        private long headlessMicros = 0;
+        private final LatencyHistogram jitters = new LatencyHistogram();
+        private final LatencyHistogram executionTimes = new LatencyHistogram();
+        private final int windowRuns;
+
+        // Written by the group's thread and read by the main thread, in microseconds
+        private volatile Window lastWindow = null;
+        private volatile long overruns = 0;
+
+        private final DoubleHandle jitterP50Handle;
+        private final DoubleHandle jitterP99Handle;
+        private final DoubleHandle jitterMaxHandle;
+        private final DoubleHandle executionTimeP99Handle;
+        private final DoubleHandle executionTimeMaxHandle;
+        private final IntegerHandle overrunsHandle;
+
+        private RateGroup(double rate) {
+            this.rate = rate;
+            this.periodMicros = (long) (1e6 / rate);
+
+            // Windows of about a second
+            this.windowRuns = (int) Math.max(Math.round(rate), 1);
+
+            String prefix = "/MultiRateExecutor/" + formatRate(rate) + " Hz/";
+            jitterP50Handle = Logger.doubleHandle(prefix + "Jitter P50");
+            jitterP99Handle = Logger.doubleHandle(prefix + "Jitter P99");
+            jitterMaxHandle = Logger.doubleHandle(prefix + "Jitter Max");
+            executionTimeP99Handle = Logger.doubleHandle(prefix + "Execution Time P99");
+            executionTimeMaxHandle = Logger.doubleHandle(prefix + "Execution Time Max");
+            overrunsHandle = Logger.integerHandle(prefix + "Overruns");
+        }
+
+        private void start(int priority) {
+            this.priority = priority;
+
+            notifier = new Notifier(this::run);
+            notifier.setName(formatRate(rate) + " Hz Updates");
+            notifier.startPeriodic(periodMicros / 1e6);
+        }
+
+        private void runHeadless(double loopPeriod) {
+            // Kept in whole microseconds, so the number of runs per loop does not depend on rounding
+            headlessMicros += Math.round(loopPeriod * 1e6);
+
+            while (headlessMicros >= periodMicros) {
+                headlessMicros -= periodMicros;
+                runUpdates();
+            }
+        }
+
+        private void run() {
+            if (!isPrioritySet) {
+                Threads.setCurrentThreadPriority(true, priority);
+                isPrioritySet = true;
+            }
+
+            long startTime = HALUtil.getFPGATime();
+
+            // The notifier runs on a fixed schedule, so lateness is measured against it rather than the last run
+            if (expectedTime == 0) expectedTime = startTime;
+            jitters.record(startTime - expectedTime);
+            expectedTime += periodMicros;
+
+            // Skip the runs that were missed entirely rather than counting each one late
+            if (startTime - expectedTime > periodMicros) expectedTime = startTime + periodMicros;
+
+            runUpdates();
+
+            long executionTime = HALUtil.getFPGATime() - startTime;
+            executionTimes.record(executionTime);
+            if (executionTime > periodMicros) overruns++;
+
+            if (executionTimes.getCount() >= windowRuns) finishWindow();
+        }
+
+        private void runUpdates() {
+            for (int i = 0; i < updatables.size(); i++) {
+                updatables.get(i).update();
+            }
+        }
+
+        private void finishWindow() {
+            lastWindow = new Window(
+                    jitters.getPercentile(50),
+                    jitters.getPercentile(99),
+                    jitters.getMax(),
+                    executionTimes.getPercentile(99),
+                    executionTimes.getMax());
+
+            jitters.reset();
+            executionTimes.reset();
+        }
+
+        private void logMetrics() {
+            Window window = lastWindow;
+            if (window != null) {
+                jitterP50Handle.set(window.jitterP50() / 1e3); // ms
+                jitterP99Handle.set(window.jitterP99() / 1e3); // ms
+                jitterMaxHandle.set(window.jitterMax() / 1e3); // ms
+                executionTimeP99Handle.set(window.executionTimeP99() / 1e3); // ms
+                executionTimeMaxHandle.set(window.executionTimeMax() / 1e3); // ms
+            }
+
+            overrunsHandle.set(overruns);
+        }
+    }
+
+    private record Window(
+            long jitterP50, long jitterP99, long jitterMax, long executionTimeP99, long executionTimeMax) {}
+}
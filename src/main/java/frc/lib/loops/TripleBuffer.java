@@ -0,0 +1,58 @@
+package frc.lib.loops;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands the latest state from one thread to another without locking or allocating. The writer fills its own buffer
+ * and publishes it, and the reader always sees the most recently published buffer, never one being written.
+ *
+ * <p>Only a single writer thread and a single reader thread may use a buffer.
+ */
+public class TripleBuffer<T> {
+    private static final int dirtyBit = 4;
+    private static final int indexMask = 3;
+
+    private final Object[] buffers;
+
+    // Index of the buffer between the writer and reader, and whether it holds a state the reader has not seen
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    private int writeIndex = 0;
+    private int readIndex = 2;
+
+    /**
+     * @param factory Creates each of the three buffers.
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        buffers = new Object[] {factory.get(), factory.get(), factory.get()};
+    }
+
+    /**
+     * @return The buffer to fill before calling {@link #publish()}. Must only be called by the writer.
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[writeIndex];
+    }
+
+    /**
+     * Makes the write buffer the latest state, and gives the writer another buffer to fill.
+     */
+    public void publish() {
+        writeIndex = middle.getAndSet(writeIndex | dirtyBit) & indexMask;
+    }
+
+    /**
+     * @return The most recently published state, which stays valid until the next read. Must only be called by the
+     * reader, and must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    public T read() {
+        if ((middle.get() & dirtyBit) != 0) {
+            readIndex = middle.getAndSet(readIndex) & indexMask;
+        }
+
+        return (T) buffers[readIndex];
+    }
+}
@@ -1,11 +1,22 @@
 package frc.lib.loops;
 
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.TimesliceRobot;
 import edu.wpi.first.wpilibj2.command.Subsystem;
+import frc.lib.logging.LogHandle.BooleanHandle;
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.LogHandle.IntegerHandle;
+import frc.lib.logging.Logger;
+import frc.lib.loops.LoopProfiler.Section;
+import java.util.ArrayList;
+import java.util.List;
 
 public class UpdateManager {
     private TimesliceRobot robot;
 
+    // In the order they are scheduled, which is the order they run in each loop
+    private final List<Timeslice> timeslices = new ArrayList<>();
+
     public UpdateManager(TimesliceRobot robot) {
         this.robot = robot;
     }
@@ -15,6 +26,79 @@ public class UpdateManager {
      * @param updateTimeslice The corresponding timeslice of the subsystem.
      */
     public void schedule(Subsystem subsystem, double updateTimeslice) {
-        robot.schedule(() -> ((Updatable) subsystem).update(), updateTimeslice);
+        schedule(subsystem.getClass().getSimpleName(), (Updatable) subsystem, updateTimeslice);
+    }
+
+    /**
+     * @param name The name execution times are logged under.
+     * @param updatable The update getting registered.
+     * @param updateTimeslice The corresponding timeslice of the update, in seconds.
+     */
+    public void schedule(String name, Updatable updatable, double updateTimeslice) {
+        Timeslice timeslice = new Timeslice(name, updatable, updateTimeslice);
+        timeslices.add(timeslice);
+
+        robot.schedule(timeslice::run, updateTimeslice);
+    }
+
+    /**
+     * Runs every timeslice once in order, for running a loop without the robot's timing, such as when replaying.
+     */
+    public void runAll() {
+        for (int i = 0; i < timeslices.size(); i++) {
+            timeslices.get(i).run();
+        }
+    }
+
+    /**
+     * Times an update against its budget, so an overrun can be traced back to the slice that caused it.
+     */
+    private static class Timeslice {
+        private final String name;
+        private final Updatable updatable;
+        private final long budgetNanos;
+
+        private long overruns = 0;
+
+        private final Section section;
+
+        // Execution time in milliseconds
+        private final DoubleHandle executionTimeHandle;
+        private final BooleanHandle overrunHandle;
+        private final IntegerHandle overrunsHandle;
+
+        private Timeslice(String name, Updatable updatable, double budget) {
+            this.name = name;
+            this.updatable = updatable;
+            this.budgetNanos = (long) (budget * 1e9);
+
+            section = LoopProfiler.section("Timeslices/" + name);
+
+            String prefix = "/UpdateManager/" + name + "/";
+            executionTimeHandle = Logger.doubleHandle(prefix + "Execution Time");
+            overrunHandle = Logger.booleanHandle(prefix + "Overrun");
+            overrunsHandle = Logger.integerHandle(prefix + "Overruns");
+        }
+
+        private void run() {
+            long startTime = System.nanoTime();
+
+            updatable.update();
+
+            long executionTime = System.nanoTime() - startTime;
+            boolean isOverrun = executionTime > budgetNanos;
+
+            section.record(executionTime);
+
+            if (isOverrun && overruns++ == 0) {
+                DriverStation.reportWarning(
+                        name + " overran its " + budgetNanos / 1e6 + " ms timeslice (" + executionTime / 1e6 + " ms)",
+                        false);
+            }
+
+            executionTimeHandle.set(executionTime / 1e6);
+            overrunHandle.set(isOverrun);
+            overrunsHandle.set(overruns);
+        }
     }
 }
@@ -0,0 +1,24 @@
+package frc.lib.sim;
+
+/**
+ * A robot that can be stepped one loop at a time by a runner instead of running its own timed loop.
+ */
+public interface HeadlessRobot {
+    /**
+     * Performs the same initialization as starting the robot normally, without starting the loop.
+     */
+    void initializeHeadless();
+
+    /**
+     * Runs a single iteration of the robot loop.
+     */
+    void runHeadlessLoop();
+
+    /**
+     * @return Values describing what the robot is doing in simulation, such as its pose and mechanism positions.
+     * Hashed after every simulated loop to check that runs are reproducible.
+     */
+    default double[] getSimulatedState() {
+        return new double[0];
+    }
+}
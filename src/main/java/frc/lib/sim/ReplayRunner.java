@@ -0,0 +1,80 @@
+package frc.lib.sim;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.hal.HALUtil;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.LogReplay;
+import frc.lib.logging.Logger;
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Replays a recorded wpilog through the robot code without hardware, as fast as the CPU allows. Each recorded loop
+ * restores the inputs and driver station state of that loop, steps the simulated clock to its timestamp, and runs
+ * one robot loop. Everything the robot logs during replay is written to "[log name]_replay.wpilog" next to the
+ * original so the two can be compared.
+ */
+public class ReplayRunner {
+    private ReplayRunner() {}
+
+    public static void run(String logPath, Supplier<? extends HeadlessRobot> robotSupplier) throws IOException {
+        if (!HAL.initialize(500, 0)) throw new IllegalStateException("Failed to initialize the HAL");
+
+        // The output log must be started before the Logger is first used
+        File logFile = new File(logPath).getAbsoluteFile();
+        String outputName = logFile.getName().replaceFirst("\\.wpilog(\\.gz)?$", "") + "_replay.wpilog";
+        DataLogManager.start(logFile.getParent(), outputName);
+
+        LogReplay.start(logFile.getPath());
+
+        // The clock only moves when stepped, so timers behave exactly as they did when recorded
+        SimHooks.pauseTiming();
+
+        HeadlessRobot robot = robotSupplier.get();
+        robot.initializeHeadless();
+
+        DoubleHandle loopTimeHandle = Logger.doubleHandle("/Replay/Loop Time");
+
+        long replayStartTime = System.nanoTime();
+        long maximumLoopTime = 0;
+        long firstTimestamp = -1;
+        int cycles = 0;
+
+        while (LogReplay.advanceCycle()) {
+            if (firstTimestamp < 0) firstTimestamp = LogReplay.getTimestamp();
+
+            long stepTime = LogReplay.getTimestamp() - HALUtil.getFPGATime();
+            if (stepTime > 0) SimHooks.stepTiming(stepTime / 1e6);
+
+            LogReplay.applyDriverStation();
+
+            long loopStartTime = System.nanoTime();
+            robot.runHeadlessLoop();
+            long loopTime = System.nanoTime() - loopStartTime;
+
+            // Recorded in the next loop, since the loop has already called Logger.update()
+            loopTimeHandle.set(loopTime / 1e6);
+            maximumLoopTime = Math.max(maximumLoopTime, loopTime);
+            cycles++;
+        }
+
+        Logger.flush(10);
+        DataLogManager.getLog().flush();
+
+        double replayDuration = (System.nanoTime() - replayStartTime) / 1e9;
+        double recordedDuration = cycles > 0 ? (LogReplay.getTimestamp() - firstTimestamp) / 1e6 : 0;
+
+        System.out.printf(
+                "Replayed %d loops (%.1f s recorded) in %.1f s, %.1fx real time. Mean loop %.3f ms, max %.3f ms.%n",
+                cycles,
+                recordedDuration,
+                replayDuration,
+                recordedDuration / Math.max(replayDuration, 1e-9),
+                replayDuration * 1e3 / Math.max(cycles, 1),
+                maximumLoopTime / 1e6);
+        System.out.println("Replayed log written to " + new File(logFile.getParent(), outputName));
+    }
+}
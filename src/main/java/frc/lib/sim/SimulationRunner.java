@@ -0,0 +1,119 @@
+package frc.lib.sim;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.lib.logging.Logger;
+import frc.lib.sim.SimulationScript.Phase;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Drives the robot through a scripted match in simulation, as fast as the CPU allows. The simulated clock is paused
+ * and stepped by exactly one loop period before each loop, so the robot sees the same time, driver station state,
+ * and inputs on every run.
+ *
+ * <p>The robot's simulated state is hashed after every loop, and the digest is printed at the end. Runs of the same
+ * code and script produce the same digest, which SimulationDeterminismTest checks by running the match twice. A
+ * digest printed by an earlier run can also be passed to ./gradlew simulateMatch with -PexpectedDigest, which fails
+ * if the robot's behavior has changed since. Timing measurements that are logged, such as execution times, come
+ * from the real clock and are not part of the digest.
+ */
+public class SimulationRunner {
+    private SimulationRunner() {}
+
+    /**
+     * @param robotSupplier Creates the robot to run.
+     * @param loopPeriod The period of the robot loop in seconds.
+     * @param script The phases to run the robot through.
+     * @param logDirectory The directory to write the log of the run to, or null for DataLogManager's default.
+     * @return The digest of the robot's simulated state over the run, in hexadecimal.
+     */
+    public static String run(
+            Supplier<? extends HeadlessRobot> robotSupplier,
+            double loopPeriod,
+            SimulationScript script,
+            String logDirectory) {
+        if (!HAL.initialize(500, 0)) throw new IllegalStateException("Failed to initialize the HAL");
+
+        // The output log must be started before the Logger is first used
+        if (logDirectory != null) DataLogManager.start(new File(logDirectory).getAbsolutePath(), "simulation.wpilog");
+
+        // The clock only moves when stepped, so timers and controllers see exactly one period per loop
+        SimHooks.pauseTiming();
+
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        DriverStationSim.notifyNewData();
+
+        HeadlessRobot robot = robotSupplier.get();
+        robot.initializeHeadless();
+
+        MessageDigest digest = createDigest();
+
+        long startTime = System.nanoTime();
+        int loops = 0;
+
+        for (Phase phase : script.getPhases()) {
+            DriverStationSim.setEnabled(phase.mode() != SimulationScript.Mode.Disabled);
+            DriverStationSim.setAutonomous(phase.mode() == SimulationScript.Mode.Autonomous);
+
+            // Rounded so a phase always runs a whole number of loops regardless of floating point error
+            long phaseLoops = Math.round(phase.duration() / loopPeriod);
+
+            for (long i = 0; i < phaseLoops; i++) {
+                double phaseTime = i * loopPeriod;
+
+                phase.inputs().apply(phaseTime);
+                DriverStationSim.setMatchTime(phase.duration() - phaseTime);
+                DriverStationSim.notifyNewData();
+
+                SimHooks.stepTiming(loopPeriod);
+                robot.runHeadlessLoop();
+
+                update(digest, robot.getSimulatedState());
+                loops++;
+            }
+        }
+
+        Logger.flush(10);
+        DataLogManager.getLog().flush();
+
+        double duration = (System.nanoTime() - startTime) / 1e9;
+        double simulatedDuration = loops * loopPeriod;
+        String stateDigest = HexFormat.of().formatHex(digest.digest());
+
+        System.out.printf(
+                "Simulated %d loops (%.1f s) in %.1f s, %.1fx real time.%n",
+                loops, simulatedDuration, duration, simulatedDuration / Math.max(duration, 1e-9));
+        System.out.println("State digest: " + stateDigest);
+
+        return stateDigest;
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static void update(MessageDigest digest, double[] state) {
+        ByteBuffer buffer = ByteBuffer.allocate(state.length * Double.BYTES);
+
+        // Hashed by their bits, so the digest only matches if every value is exactly the same
+        for (double value : state) {
+            buffer.putLong(Double.doubleToRawLongBits(value));
+        }
+
+        digest.update(buffer.array());
+    }
+}
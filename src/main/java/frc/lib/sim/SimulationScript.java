@@ -0,0 +1,50 @@
+package frc.lib.sim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sequence of match phases for {@link SimulationRunner} to drive the robot through, each with the driver inputs to
+ * apply during it.
+ */
+public class SimulationScript {
+    public enum Mode {
+        Disabled,
+        Autonomous,
+        Teleop
+    }
+
+    @FunctionalInterface
+    public interface Inputs {
+        /**
+         * Sets the driver station's simulated joysticks for the next loop.
+         *
+         * @param phaseTime The time since the phase started in seconds.
+         */
+        void apply(double phaseTime);
+    }
+
+    public record Phase(Mode mode, double duration, Inputs inputs) {}
+
+    private final List<Phase> phases = new ArrayList<>();
+
+    public SimulationScript disabled(double duration) {
+        phases.add(new Phase(Mode.Disabled, duration, phaseTime -> {}));
+        return this;
+    }
+
+    public SimulationScript autonomous(double duration) {
+        phases.add(new Phase(Mode.Autonomous, duration, phaseTime -> {}));
+        return this;
+    }
+
+    public SimulationScript teleop(double duration, Inputs inputs) {
+        phases.add(new Phase(Mode.Teleop, duration, inputs));
+        return this;
+    }
+
+    public List<Phase> getPhases() {
+        return Collections.unmodifiableList(phases);
+    }
+}
@@ -0,0 +1,167 @@
+package frc.lib.startup;
+
+import com.ctre.phoenix.ErrorCode;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.logging.Logger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Configures devices concurrently during startup. Most of a device's configuration time is spent waiting for it to
+ * respond over CAN, so configuring every device at once takes about as long as the slowest device rather than the
+ * sum of them all. Once every device is configured, a boot report of each device's configuration time and any
+ * failures is logged under /Boot/.
+ *
+ * <p>Tasks are submitted from subsystem constructors, and must only touch their own devices. A subsystem must not
+ * drive its devices until its tasks are done, see {@link #isDone(Task...)}.
+ */
+public class DeviceConfigurator {
+    private static final int threadCount = 8;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+        Thread thread = new Thread(runnable, "Device Configuration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only accessed from the main thread
+    private static final List<Task> tasks = new ArrayList<>();
+
+    @FunctionalInterface
+    public interface Configuration {
+        void configure() throws Exception;
+    }
+
+    /**
+     * Starts configuring a device once its dependencies are configured, even if they failed.
+     *
+     * @param name The name of the device in the boot report.
+     * @param configuration Configures the device, throwing if it fails.
+     * @param dependencies Tasks that must finish first, such as a sensor that the configuration reads.
+     * @return The task, to be used as a dependency.
+     */
+    public static Task configure(String name, Configuration configuration, Task... dependencies) {
+        CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            dependencyFutures[i] = dependencies[i].future;
+        }
+
+        Task task = new Task(name);
+        task.future = CompletableFuture.allOf(dependencyFutures).thenRunAsync(() -> task.run(configuration), executor);
+        tasks.add(task);
+
+        return task;
+    }
+
+    /**
+     * Throws if a CTRE call failed, so the failure is recorded in the boot report.
+     */
+    public static void check(ErrorCode errorCode, String step) {
+        if (errorCode != ErrorCode.OK) throw new IllegalStateException(step + " failed with " + errorCode);
+    }
+
+    /**
+     * @return If every task has finished, whether or not it failed. A task that timed out in {@link #awaitAll(double)}
+     * is still configuring its device, which would change the device's setup while it is being driven.
+     */
+    public static boolean isDone(Task... tasks) {
+        for (Task task : tasks) {
+            if (!task.isDone()) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Waits for every task submitted so far and logs the boot report. Devices that are still configuring after the
+     * timeout are reported as timed out, and keep configuring in the background. A warning is reported once each of
+     * them finishes, and until then their subsystems leave them disabled.
+     *
+     * @return If every device was configured without failing.
+     */
+    public static boolean awaitAll(double timeoutSeconds) {
+        long startTime = System.nanoTime();
+        long deadline = startTime + (long) (timeoutSeconds * 1e9);
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            futures[i] = tasks.get(i).future;
+        }
+
+        try {
+            CompletableFuture.allOf(futures).get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException exception) {
+            // Tasks catch their own failures, so this only times out, which is reported per device below
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<String> failedDevices = new ArrayList<>();
+        double sequentialDuration = 0;
+
+        for (Task task : tasks) {
+            String error = task.future.isDone() ? task.error : "Timed out";
+            String prefix = "/Boot/Devices/" + task.name + "/";
+
+            Logger.log(prefix + "Duration", task.duration / 1e6); // ms
+            Logger.log(prefix + "Error", error);
+
+            sequentialDuration += task.duration / 1e6;
+
+            if (!error.isEmpty()) {
+                failedDevices.add(task.name);
+                DriverStation.reportWarning("Failed to configure " + task.name + ": " + error, false);
+            }
+
+            if (!task.future.isDone()) {
+                task.future.thenRun(() -> DriverStation.reportWarning(
+                        "Configured " + task.name + " after the timeout"
+                                + (task.error.isEmpty() ? "" : ", failed with " + task.error),
+                        false));
+            }
+        }
+
+        Logger.log("/Boot/Configuration Duration", (System.nanoTime() - startTime) / 1e6); // ms
+        Logger.log("/Boot/Sequential Duration", sequentialDuration); // ms, the sum of every device's duration
+        Logger.log("/Boot/Failed Devices", failedDevices.toArray(new String[0]));
+
+        tasks.clear();
+
+        return failedDevices.isEmpty();
+    }
+
+    public static class Task {
+        private final String name;
+        private CompletableFuture<Void> future;
+
+        // Written by the configuring thread before the future completes
+        private volatile long duration = 0;
+        private volatile String error = "";
+
+        private Task(String name) {
+            this.name = name;
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        private void run(Configuration configuration) {
+            long startTime = System.nanoTime();
+
+            try {
+                configuration.configure();
+            } catch (Exception exception) {
+                error = exception.getMessage() != null ? exception.getMessage() : exception.toString();
+            }
+
+            duration = System.nanoTime() - startTime;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package frc.lib.startup;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.logging.LogHandle.BooleanHandle;
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.LogHandle.IntegerHandle;
+import frc.lib.logging.Logger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs hot code paths with dummy inputs while the robot is disabled, so they are loaded and compiled before the first
+ * enabled loop instead of during it. Each exercise's first and latest durations are logged under /WarmUp/, along with
+ * the duration of the first enabled loop.
+ *
+ * <p>Background exercises run on their own thread and must not touch state used by the robot, so they should build
+ * their own instances of what they exercise. Exercises that can only run on the main thread, such as building
+ * commands, run one iteration each disabled loop.
+ */
+public class WarmUpService {
+    // Enough calls for the JIT to compile a method with its optimizing compiler
+    public static final int compileIterations = 20000;
+
+    // The background thread runs in bursts so it never holds a core for long, even while disabled
+    private static final long burstNanos = 2_000_000;
+    private static final long restMillis = 2;
+
+    private final List<Exercise> backgroundExercises = new ArrayList<>();
+    private final List<Exercise> mainThreadExercises = new ArrayList<>();
+
+    private Thread thread = null;
+    private volatile boolean isStopped = false;
+
+    private long enabledLoopStartTime = 0;
+    private boolean isEnabledLoopMeasured = false;
+
+    private final DoubleHandle firstEnabledLoopHandle = Logger.doubleHandle("/WarmUp/First Enabled Loop");
+    private final BooleanHandle wasWarmHandle = Logger.booleanHandle("/WarmUp/Was Warm");
+
+    /**
+     * Adds an exercise that runs on a background thread.
+     *
+     * @param name The name the exercise's durations are logged under.
+     * @param iterations How many times to run the exercise, such as {@link #compileIterations}.
+     * @param exercise Runs the code path once, given the iteration so inputs can vary.
+     */
+    public void addBackground(String name, int iterations, IntConsumer exercise) {
+        backgroundExercises.add(new Exercise(name, iterations, exercise));
+    }
+
+    /**
+     * Adds an exercise that runs on the main thread, one iteration each disabled loop.
+     *
+     * @param name The name the exercise's durations are logged under.
+     * @param iterations How many times to run the exercise.
+     * @param exercise Runs the code path once, given the iteration so inputs can vary.
+     */
+    public void addMainThread(String name, int iterations, IntConsumer exercise) {
+        mainThreadExercises.add(new Exercise(name, iterations, exercise));
+    }
+
+    /**
+     * Continues warming up, called every disabled loop. Starts the background thread if it is not running and runs
+     * one iteration of the next unfinished main thread exercise.
+     */
+    public void runDisabled() {
+        if (!isFinished(backgroundExercises) && (thread == null || !thread.isAlive())) {
+            isStopped = false;
+
+            thread = new Thread(this::runBackground, "Warm Up");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        }
+
+        for (int i = 0; i < mainThreadExercises.size(); i++) {
+            Exercise exercise = mainThreadExercises.get(i);
+
+            if (!exercise.isFinished()) {
+                exercise.run();
+                break;
+            }
+        }
+
+        for (int i = 0; i < backgroundExercises.size(); i++) {
+            backgroundExercises.get(i).log();
+        }
+
+        for (int i = 0; i < mainThreadExercises.size(); i++) {
+            mainThreadExercises.get(i).log();
+        }
+    }
+
+    /**
+     * Stops warming up so it does not compete with the enabled loop, and starts timing the first enabled loop. Called
+     * from each enabled mode's init.
+     */
+    public void enable() {
+        isStopped = true;
+
+        if (!isEnabledLoopMeasured && enabledLoopStartTime == 0) enabledLoopStartTime = System.nanoTime();
+    }
+
+    /**
+     * Logs the duration of the first enabled loop, called at the end of every loop.
+     */
+    public void finishEnabledLoop() {
+        if (isEnabledLoopMeasured || enabledLoopStartTime == 0) return;
+
+        firstEnabledLoopHandle.set((System.nanoTime() - enabledLoopStartTime) / 1e6); // ms
+        wasWarmHandle.set(isFinished());
+
+        isEnabledLoopMeasured = true;
+    }
+
+    /**
+     * @return If every exercise has run all of its iterations.
+     */
+    public boolean isFinished() {
+        return isFinished(backgroundExercises) && isFinished(mainThreadExercises);
+    }
+
+    private static boolean isFinished(List<Exercise> exercises) {
+        for (int i = 0; i < exercises.size(); i++) {
+            if (!exercises.get(i).isFinished()) return false;
+        }
+
+        return true;
+    }
+
+    private void runBackground() {
+        long burstStartTime = System.nanoTime();
+
+        for (Exercise exercise : backgroundExercises) {
+            while (!exercise.isFinished()) {
+                if (isStopped) return;
+
+                exercise.run();
+
+                if (System.nanoTime() - burstStartTime > burstNanos) {
+                    try {
+                        Thread.sleep(restMillis);
+                    } catch (InterruptedException exception) {
+                        return;
+                    }
+
+                    burstStartTime = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    private static class Exercise {
+        private final String name;
+        private final int iterations;
+        private final IntConsumer exercise;
+
+        // Written by the thread running the exercise and read by the main thread, durations in nanoseconds
+        private volatile int completedIterations = 0;
+        private volatile long coldDuration = 0;
+        private volatile long warmDuration = 0;
+
+        private final DoubleHandle coldDurationHandle;
+        private final DoubleHandle warmDurationHandle;
+        private final IntegerHandle completedIterationsHandle;
+
+        private Exercise(String name, int iterations, IntConsumer exercise) {
+            this.name = name;
+            this.iterations = iterations;
+            this.exercise = exercise;
+
+            String prefix = "/WarmUp/" + name + "/";
+            coldDurationHandle = Logger.doubleHandle(prefix + "Cold Duration");
+            warmDurationHandle = Logger.doubleHandle(prefix + "Warm Duration");
+            completedIterationsHandle = Logger.integerHandle(prefix + "Completed Iterations");
+        }
+
+        private boolean isFinished() {
+            return completedIterations >= iterations;
+        }
+
+        private void run() {
+            long startTime = System.nanoTime();
+
+            try {
+                exercise.accept(completedIterations);
+            } catch (RuntimeException exception) {
+                // A failing exercise would fail every iteration, so it is not run again
+                DriverStation.reportWarning("Warm up " + name + " failed: " + exception.getMessage(), false);
+                completedIterations = iterations;
+                return;
+            }
+
+            long duration = System.nanoTime() - startTime;
+
+            if (completedIterations == 0) coldDuration = duration;
+            warmDuration = duration;
+
+            completedIterations++;
+        }
+
+        private void log() {
+            coldDurationHandle.set(coldDuration / 1e6); // ms
+            warmDurationHandle.set(warmDuration / 1e6); // ms
+            completedIterationsHandle.set(completedIterations);
+        }
+    }
+}
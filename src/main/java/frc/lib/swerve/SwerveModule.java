@@ -2,6 +2,7 @@ package frc.lib.swerve;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
 import com.ctre.phoenix.sensors.WPI_CANCoder;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
@@ -9,7 +10,10 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import frc.lib.math.Conversions;
+import frc.lib.startup.DeviceConfigurator;
+import frc.lib.startup.DeviceConfigurator.Task;
 import frc.robot.Constants;
+import frc.robot.Constants.TimesliceConstants;
 import frc.robot.Robot;
 
 public class SwerveModule {
@@ -20,6 +24,9 @@ public class SwerveModule {
     private WPI_CANCoder angleEncoder;
     private double lastAngle;
 
+    // The tasks configuring the module's motors, which finish after its CANCoder
+    private final Task[] configurations;
+
     SimpleMotorFeedforward driveFeedforward = new SimpleMotorFeedforward(
             Constants.SwerveConstants.calculatedDriveKS,
             Constants.SwerveConstants.calculatedDriveKV,
@@ -33,25 +40,42 @@ public class SwerveModule {
         this.moduleNumber = moduleNumber;
         angleOffset = moduleConstants.angleOffset;
 
+        String name = "Swerve Module " + moduleNumber + "/";
+
         /* Angle Encoder Config */
         angleEncoder = moduleConstants.canivoreName.isEmpty()
                 ? new WPI_CANCoder(moduleConstants.cancoderID)
                 : new WPI_CANCoder(moduleConstants.cancoderID, moduleConstants.canivoreName.get());
-        configAngleEncoder();
+        Task angleEncoderConfiguration = DeviceConfigurator.configure(name + "CANCoder", this::configAngleEncoder);
 
         /* Angle Motor Config */
         angleMotor = moduleConstants.canivoreName.isEmpty()
                 ? new WPI_TalonFX(moduleConstants.angleMotorID)
                 : new WPI_TalonFX(moduleConstants.angleMotorID, moduleConstants.canivoreName.get());
-        configAngleMotor();
+
+        // Resetting to the absolute position reads the CANCoder, so it must be configured first
+        Task angleMotorConfiguration = DeviceConfigurator.configure(
+                name + "Angle Motor",
+                () -> {
+                    configAngleMotor();
+                    lastAngle = getState().angle.getDegrees();
+                },
+                angleEncoderConfiguration);
 
         /* Drive Motor Config */
         driveMotor = moduleConstants.canivoreName.isEmpty()
                 ? new WPI_TalonFX(moduleConstants.driveMotorID)
                 : new WPI_TalonFX(moduleConstants.driveMotorID, moduleConstants.canivoreName.get());
-        configDriveMotor();
+        Task driveMotorConfiguration = DeviceConfigurator.configure(name + "Drive Motor", this::configDriveMotor);
 
-        lastAngle = getState().angle.getDegrees();
+        configurations = new Task[] {angleMotorConfiguration, driveMotorConfiguration};
+    }
+
+    /**
+     * @return The tasks configuring the module's devices, for configuration that depends on the whole module.
+     */
+    public Task[] getConfigurations() {
+        return configurations;
     }
 
     public void setDesiredState(SwerveModuleState desiredState, boolean isOpenLoop) {
@@ -142,41 +166,62 @@ public class SwerveModule {
     }
 
     private void configAngleEncoder() {
-        angleEncoder.configFactoryDefault();
-        angleEncoder.configAllSettings(Robot.ctreConfigs.swerveCanCoderConfig);
+        DeviceConfigurator.check(angleEncoder.configFactoryDefault(), "Factory default");
+        DeviceConfigurator.check(angleEncoder.configAllSettings(Robot.ctreConfigs.swerveCanCoderConfig), "Settings");
     }
 
     private void configAngleMotor() {
-        angleMotor.configFactoryDefault();
-        angleMotor.configAllSettings(Robot.ctreConfigs.swerveAngleFXConfig);
+        DeviceConfigurator.check(angleMotor.configFactoryDefault(), "Factory default");
+        DeviceConfigurator.check(angleMotor.configAllSettings(Robot.ctreConfigs.swerveAngleFXConfig), "Settings");
         angleMotor.setInverted(Constants.SwerveConstants.angleMotorInvert);
         angleMotor.setNeutralMode(Constants.SwerveConstants.angleNeutralMode);
         angleMotor.enableVoltageCompensation(true);
+        configOdometryStatusFrame(angleMotor);
         resetToAbsolute();
     }
 
     private void configDriveMotor() {
-        driveMotor.configFactoryDefault();
-        driveMotor.configAllSettings(Robot.ctreConfigs.swerveDriveFXConfig);
+        DeviceConfigurator.check(driveMotor.configFactoryDefault(), "Factory default");
+        DeviceConfigurator.check(driveMotor.configAllSettings(Robot.ctreConfigs.swerveDriveFXConfig), "Settings");
         driveMotor.setNeutralMode(Constants.SwerveConstants.driveNeutralMode);
         driveMotor.setSelectedSensorPosition(0);
         driveMotor.enableVoltageCompensation(true);
         driveMotor.setSensorPhase(Constants.SwerveConstants.driveEncoderInvert);
         driveMotor.setInverted(Constants.SwerveConstants.driveMotorInvert);
+        configOdometryStatusFrame(driveMotor);
+    }
+
+    // Odometry reads the selected sensor position, which is only as fresh as the feedback status frame
+    private static void configOdometryStatusFrame(WPI_TalonFX motor) {
+        DeviceConfigurator.check(
+                motor.setStatusFramePeriod(
+                        StatusFrameEnhanced.Status_2_Feedback0, TimesliceConstants.odometryStatusFramePeriod),
+                "Feedback status frame");
     }
 
     public Rotation2d getCanCoder() {
-        return Rotation2d.fromDegrees(angleEncoder.getAbsolutePosition());
+        return Rotation2d.fromDegrees(getCanCoderDegrees());
+    }
+
+    public double getCanCoderDegrees() {
+        return angleEncoder.getAbsolutePosition();
     }
 
     public SwerveModuleState getState() {
-        double velocity = Conversions.falconToMPS(
+        return new SwerveModuleState(getSpeed(), Rotation2d.fromDegrees(getAngleDegrees()));
+    }
+
+    /* Allocation free state getters - For logging every loop */
+    public double getSpeed() {
+        return Conversions.falconToMPS(
                 driveMotor.getSelectedSensorVelocity(),
                 Constants.SwerveConstants.wheelCircumference,
                 Constants.SwerveConstants.driveGearRatio);
-        Rotation2d angle = Rotation2d.fromDegrees(Conversions.falconToDegrees(
-                angleMotor.getSelectedSensorPosition(), Constants.SwerveConstants.angleGearRatio));
-        return new SwerveModuleState(velocity, angle);
+    }
+
+    public double getAngleDegrees() {
+        return Conversions.falconToDegrees(
+                angleMotor.getSelectedSensorPosition(), Constants.SwerveConstants.angleGearRatio);
     }
 
     public double getAngularVelocity() {
@@ -192,9 +237,7 @@ public class SwerveModule {
                         Constants.SwerveConstants.wheelCircumference,
                         Constants.SwerveConstants.driveGearRatio)
                 / 10.0; // Compensate for Talon measuring in 100 ms units
-        Rotation2d angle = Rotation2d.fromDegrees(Conversions.falconToDegrees(
-                angleMotor.getSelectedSensorPosition(), Constants.SwerveConstants.angleGearRatio));
-        return new SwerveModulePosition(encoder, angle);
+        return new SwerveModulePosition(encoder, Rotation2d.fromDegrees(getAngleDegrees()));
     }
 
     public double getDriveTemperature() {
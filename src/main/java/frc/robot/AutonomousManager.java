@@ -5,13 +5,18 @@ import static edu.wpi.first.wpilibj2.command.Commands.*;
 import com.pathplanner.lib.PathConstraints;
 import com.pathplanner.lib.PathPlanner;
 import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
 import com.pathplanner.lib.auto.PIDConstants;
 import com.pathplanner.lib.auto.SwerveAutoBuilder;
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
 import com.pathplanner.lib.server.PathPlannerServer;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj2.command.Command;
-import frc.lib.logging.LoggedReceiver;
+import frc.lib.logging.LoggedTunable;
 import frc.lib.logging.Logger;
+import frc.lib.startup.WarmUpService;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.SwerveDriveSubsystem;
 import java.util.HashMap;
@@ -22,13 +27,10 @@ public class AutonomousManager {
     private static final AutonomousOption defaultAuto = AutonomousOption.PLACE1ANDCLIMB;
 
     // Add tunables for all autonomous configuration options
-    LoggedReceiver waitDuration;
-    LoggedReceiver startPosition;
-    LoggedReceiver gamePieces;
-    LoggedReceiver shouldClimb;
-
-    private String previousStartPosition = defaultAuto.startPosition.name();
-    private int previousGamePieces = defaultAuto.gamePieces;
+    LoggedTunable waitDuration;
+    LoggedTunable startPosition;
+    LoggedTunable gamePieces;
+    LoggedTunable shouldClimb;
 
     private SwerveAutoBuilder autoBuilder;
 
@@ -72,32 +74,53 @@ public class AutonomousManager {
         }
     }
 
-    public void update() {
+    /**
+     * Updates the chosen auto, only called when a different option has been chosen.
+     */
+    private void updateChosenAuto() {
         var newStartPosition = startPosition.getString();
         var newGamePieces = gamePieces.getInteger();
 
-        // Only update the chosen auto if a different option has been chosen
-        if (previousStartPosition != newStartPosition || previousGamePieces != newGamePieces) {
-            // Match the auto based on the dashboard configuration
-            List<AutonomousOption> options = Stream.of(AutonomousOption.values())
-                    .filter(option ->
-                            option.startPosition.name() == newStartPosition && option.gamePieces == newGamePieces)
-                    .toList();
+        // Match the auto based on the dashboard configuration
+        List<AutonomousOption> options = Stream.of(AutonomousOption.values())
+                .filter(option ->
+                        option.startPosition.name().equals(newStartPosition) && option.gamePieces == newGamePieces)
+                .toList();
 
-            if (options.size() == 1) chosenAuto = options.get(0).getPath();
-            else chosenAuto = defaultAuto.getPath();
+        if (options.size() == 1) chosenAuto = options.get(0).getPath();
+        else chosenAuto = defaultAuto.getPath();
 
-            // Determine all of the game piece options for this starting position
-            long[] gamePieceOptions = Stream.of(AutonomousOption.values())
-                    .filter(option -> option.startPosition.name().equals(newStartPosition))
-                    .mapToLong(option -> option.gamePieces)
-                    .toArray();
+        // Determine all of the game piece options for this starting position
+        long[] gamePieceOptions = Stream.of(AutonomousOption.values())
+                .filter(option -> option.startPosition.name().equals(newStartPosition))
+                .mapToLong(option -> option.gamePieces)
+                .toArray();
 
-            Logger.log("/Autonomous/Game Piece Options", gamePieceOptions);
+        Logger.log("/Autonomous/Game Piece Options", gamePieceOptions);
+    }
 
-            previousStartPosition = newStartPosition;
-            previousGamePieces = (int) newGamePieces;
-        }
+    /**
+     * Adds exercises of loading paths, following them, and building the autonomous command.
+     */
+    public void addWarmUps(WarmUpService warmUpService) {
+        AutonomousOption[] options = AutonomousOption.values();
+
+        // Loaded paths are kept, so this also saves reading them when the auto is chosen
+        warmUpService.addBackground("Path Loading", options.length, iteration -> options[iteration].getPath());
+
+        PPHolonomicDriveController warmUpController = new PPHolonomicDriveController(
+                new PIDController(3.0, 0.0, 0.0), new PIDController(3.0, 0.0, 0.0), new PIDController(1.0, 0.0, 0.001));
+
+        warmUpService.addBackground("Path Following", WarmUpService.compileIterations, iteration -> {
+            PathPlannerTrajectory trajectory = defaultAuto.getPath().get(0);
+            double time = iteration * 0.02 % trajectory.getTotalTimeSeconds();
+
+            PathPlannerState state = (PathPlannerState) trajectory.sample(time);
+            warmUpController.calculate(new Pose2d(), state);
+        });
+
+        // Commands register with the scheduler when composed, so they are only built on the main thread
+        warmUpService.addMainThread("Autonomous Command", 20, iteration -> autoBuilder.fullAuto(defaultAuto.getPath()));
     }
 
     public Command getAutonomousCommand() {
@@ -113,8 +136,10 @@ public class AutonomousManager {
     private void initializeNetworkTables() {
         waitDuration = Logger.tunable("/Autonomous/Wait Duration", 0.0);
         startPosition = Logger.tunable(
-                "/Autonomous/Start Position", defaultAuto.startPosition.name()); // 0 = Left, 1 = Center, 2 = Right
-        gamePieces = Logger.tunable("/Autonomous/Game Pieces", defaultAuto.gamePieces);
+                        "/Autonomous/Start Position", defaultAuto.startPosition.name()) // 0 = Left, 1 = Center, 2 = Right
+                .onChange(this::updateChosenAuto);
+        gamePieces = Logger.tunable("/Autonomous/Game Pieces", defaultAuto.gamePieces)
+                .onChange(this::updateChosenAuto);
         shouldClimb = Logger.tunable("/Autonomous/Should Climb", true);
 
         Logger.log("/Autonomous/Start Position Options", getStartingLocations());
@@ -148,7 +173,7 @@ public class AutonomousManager {
             this.constraints = constraints;
         }
 
-        public List<PathPlannerTrajectory> getPath() {
+        public synchronized List<PathPlannerTrajectory> getPath() {
             // Lazy load the path
             if (path == null) path = PathPlanner.loadPathGroup(pathName, constraints);
 
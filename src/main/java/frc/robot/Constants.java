@@ -33,6 +33,34 @@ public final class Constants {
 
         public static final double minimumPressure = 100; // PSI
         public static final double maximumPressure = 120; // try 120
+
+        /* Log rotation - Compressed segments are several times smaller, the budget fits on a roboRIO 1 */
+        public static final long logSegmentBytes = 32L * 1024 * 1024;
+        public static final double logSegmentSeconds = 10 * 60;
+        public static final long logBudgetBytes = 150L * 1024 * 1024;
+
+        /* Device configuration - Longer than the slowest device takes, so only a missing device times out */
+        public static final double deviceConfigurationTimeout = 10; // seconds
+    }
+
+    public static final class TimesliceConstants {
+        public static final double controllerPeriod = 0.02;
+
+        // Commands and the scheduler's own periodic methods
+        public static final double robotPeriodicAllocation = 0.008;
+
+        /* Subsystem budgets - Must fit in the period after the robot periodic allocation */
+        public static final double swerveDriveTimeslice = 0.004;
+        public static final double armTimeslice = 0.004;
+        public static final double gripperTimeslice = 0.001;
+        public static final double loggingTimeslice = 0.002;
+
+        /* Multi-rate updates - Run on their own threads alongside the timeslices, in Hz */
+        public static final double odometryRate = 250;
+        // The sensors read by odometry send a new sample this often, instead of every 10-20 ms by default
+        public static final int odometryStatusFramePeriod = (int) (1000 / odometryRate); // ms
+        public static final double temperatureRate = 5;
+        public static final int multiRatePriority = 20; // Real-time, below the HAL notifier thread
     }
 
     public static final class ControllerConstants {
@@ -354,11 +382,15 @@ public final class Constants {
         public static final double driveGearRatio = (6.75 / 1.0); // 6.75:1
         public static final double angleGearRatio = (12.8 / 1.0); // 12.8:1
 
-        public static final SecondOrderSwerveKinematics swerveKinematics = new SecondOrderSwerveKinematics(
-                new Translation2d(wheelBase / 2.0, trackWidth / 2.0),
-                new Translation2d(wheelBase / 2.0, -trackWidth / 2.0),
-                new Translation2d(-wheelBase / 2.0, trackWidth / 2.0),
-                new Translation2d(-wheelBase / 2.0, -trackWidth / 2.0));
+        public static final Translation2d[] moduleTranslations = new Translation2d[] {
+            new Translation2d(wheelBase / 2.0, trackWidth / 2.0),
+            new Translation2d(wheelBase / 2.0, -trackWidth / 2.0),
+            new Translation2d(-wheelBase / 2.0, trackWidth / 2.0),
+            new Translation2d(-wheelBase / 2.0, -trackWidth / 2.0)
+        };
+
+        public static final SecondOrderSwerveKinematics swerveKinematics =
+                new SecondOrderSwerveKinematics(moduleTranslations);
 
         /* Swerve Current Limiting */
         public static final int angleContinuousCurrentLimit = 25;
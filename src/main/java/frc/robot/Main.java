@@ -1,11 +1,27 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.RobotBase;
+import frc.lib.sim.ReplayRunner;
+import frc.lib.sim.SimulationRunner;
+import frc.robot.Constants.TimesliceConstants;
+import java.io.IOException;
 
 public final class Main {
     private Main() {}
 
-    public static void main(String... args) {
+    public static void main(String... args) throws IOException {
+        if (args.length == 2 && args[0].equals("--replay")) {
+            ReplayRunner.run(args[1], Robot::new);
+            System.exit(0);
+        }
+
+        // Optionally followed by the digest the run is expected to produce
+        if (args.length >= 1 && args[0].equals("--simulate")) {
+            String stateDigest = SimulationRunner.run(
+                    Robot::new, TimesliceConstants.controllerPeriod, SimulatedMatch.create(), "build/simulation");
+            System.exit(args.length == 1 || args[1].equals(stateDigest) ? 0 : 1);
+        }
+
         RobotBase.startRobot(Robot::new);
     }
 }
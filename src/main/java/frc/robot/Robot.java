@@ -1,61 +1,176 @@
 package frc.robot;
 
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.Compressor;
 import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj.RobotController;
-import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.TimesliceRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.LogPriority;
 import frc.lib.logging.Logger;
+import frc.lib.logging.NTPublishPolicy;
+import frc.lib.logging.RotatingDataLog;
+import frc.lib.logging.RuntimeMonitor;
+import frc.lib.loops.CommandSchedulerProfiler;
+import frc.lib.loops.LoopProfiler;
+import frc.lib.sim.HeadlessRobot;
+import frc.lib.startup.DeviceConfigurator;
 import frc.lib.swerve.CTREConfigs;
 import frc.robot.Constants.FieldConstants;
 import frc.robot.Constants.GlobalConstants;
+import frc.robot.Constants.TimesliceConstants;
 import frc.robot.subsystems.LightsSubsystem;
 import frc.robot.subsystems.LightsSubsystem.LEDSegment;
 
-public class Robot extends TimedRobot {
+public class Robot extends TimesliceRobot implements HeadlessRobot {
     public static CTREConfigs ctreConfigs = new CTREConfigs();
 
     public static Compressor compressor = new Compressor(GlobalConstants.PCM_ID, PneumaticsModuleType.REVPH);
 
     private RobotContainer robotContainer;
 
+    private CommandSchedulerProfiler commandSchedulerProfiler;
+
     private Command autonomousCommand;
 
-    public Robot() {}
+    private final DoubleHandle batteryVoltageHandle = Logger.doubleHandle("/Robot/Battery Voltage");
+    private final DoubleHandle pressureHandle = Logger.doubleHandle("/Robot/Pressure");
+
+    private final RuntimeMonitor runtimeMonitor = new RuntimeMonitor();
+
+    // Headless loops run the multi-rate updates themselves instead of on their own threads
+    private boolean isHeadless = false;
+
+    public Robot() {
+        super(TimesliceConstants.robotPeriodicAllocation, TimesliceConstants.controllerPeriod);
+    }
 
     @Override
     public void robotInit() {
+        long startTime = System.nanoTime();
+
         // Disable default NetworkTables logging
         DataLogManager.logNetworkTables(false);
 
-        // Begin controller inputs
+        // Keep slow changing telemetry from competing with driver data for bandwidth
+        Logger.setNTPublishPolicy("/SwerveDriveSubsystem/Drive Temperatures", new NTPublishPolicy(1, 1, 1));
+        Logger.setNTPublishPolicy("/SwerveDriveSubsystem/Angle Temperatures", new NTPublishPolicy(1, 1, 1));
+        Logger.setNTPublishPolicy("/SwerveDriveSubsystem/CANCoder Angles", new NTPublishPolicy(5, 1, 0.5));
+
+        // Keep driver relevant data when the logging threads fall behind, and shed noisy diagnostics first
+        Logger.setPriority("/SwerveDriveSubsystem/Pose", LogPriority.Critical);
+        Logger.setPriority("/SwerveDriveSubsystem/Wheel Angles", LogPriority.Debug);
+        Logger.setPriority("/SwerveDriveSubsystem/CANCoder Angles", LogPriority.Debug);
+
+        // Odometry is logged early in the loop, so stamp it when it is logged for latency analysis
+        Logger.setCaptureTimestamps("/SwerveDriveSubsystem/Pose", true);
+
         if (isReal()) {
-            DriverStation.startDataLog(DataLogManager.getLog());
+            // Keep a long practice day from filling the roboRIO's storage. The Logger writes controller inputs into the
+            // same segments in every mode, so WPILib's driver station log is not started
+            Logger.setDataLog(new RotatingDataLog(
+                    RotatingDataLog.getDefaultDirectory(),
+                    "Robot",
+                    GlobalConstants.logSegmentBytes,
+                    GlobalConstants.logSegmentSeconds,
+                    GlobalConstants.logBudgetBytes));
         }
 
         robotContainer = new RobotContainer(this);
 
+        // Subsystems start configuring their devices when created, so wait for all of them before using any. Devices
+        // that take longer are left disabled by their subsystems until they finish
+        DeviceConfigurator.awaitAll(GlobalConstants.deviceConfigurationTimeout);
+
+        // Created once every trigger is bound
+        commandSchedulerProfiler = new CommandSchedulerProfiler(CommandScheduler.getInstance());
+
+        // Logged last so every timeslice's values are in the loop's table
+        robotContainer.getUpdateManager().schedule("Logging", this::updateLogging, TimesliceConstants.loggingTimeslice);
+
+        if (!isHeadless) robotContainer.getMultiRateExecutor().start();
+
         // Prevents the logging of many errors with our controllers
         DriverStation.silenceJoystickConnectionWarning(true);
 
         compressor.enableAnalog(GlobalConstants.minimumPressure, GlobalConstants.maximumPressure);
+
+        Logger.log("/Boot/Robot Init Duration", (System.nanoTime() - startTime) / 1e6); // ms
     }
 
     @Override
     public void robotPeriodic() {
-        CommandScheduler.getInstance().run();
+        commandSchedulerProfiler.run();
 
-        Logger.log("/Robot/Battery Voltage", RobotController.getBatteryVoltage());
-        Logger.log("/Robot/Pressure", compressor.getPressure());
+        // The mode's init and periodic have run by now, so this ends the first enabled loop
+        robotContainer.getWarmUpService().finishEnabledLoop();
+
+        batteryVoltageHandle.set(RobotController.getBatteryVoltage());
+        pressureHandle.set(compressor.getPressure());
+    }
+
+    private void updateLogging() {
+        runtimeMonitor.update();
+        robotContainer.getMultiRateExecutor().logMetrics();
+        LoopProfiler.update();
 
         Logger.update();
     }
 
+    @Override
+    public void initializeHeadless() {
+        isHeadless = true;
+
+        robotInit();
+        simulationInit();
+    }
+
+    @Override
+    public void runHeadlessLoop() {
+        robotContainer.getMultiRateExecutor().runHeadless(TimesliceConstants.controllerPeriod);
+
+        loopFunc();
+
+        // Timeslices are only run by the robot's own timing, so run them in order after the loop
+        robotContainer.getUpdateManager().runAll();
+    }
+
+    /**
+     * @return The robot's container, for tests that drive its parts directly. Null until robotInit has run.
+     */
+    RobotContainer getRobotContainer() {
+        return robotContainer;
+    }
+
+    @Override
+    public double[] getSimulatedState() {
+        Pose2d pose = robotContainer.getSwerveDriveSubsystem().getPose();
+        ChassisSpeeds velocity = robotContainer.getSwerveDriveSubsystem().getVelocity();
+        Translation2d armPosition = robotContainer.getArmSubsystem().getDynamicArmPosition();
+
+        return new double[] {
+            pose.getX(),
+            pose.getY(),
+            pose.getRotation().getRadians(),
+            velocity.vxMetersPerSecond,
+            velocity.vyMetersPerSecond,
+            velocity.omegaRadiansPerSecond,
+            armPosition.getX(),
+            armPosition.getY(),
+            robotContainer.getArmSubsystem().getState().ordinal()
+        };
+    }
+
     @Override
     public void autonomousInit() {
+        robotContainer.getWarmUpService().enable();
+
         // Reset arm pid controllers
         robotContainer.getArmSubsystem().resetPIDControllers();
 
@@ -73,6 +188,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void teleopInit() {
+        robotContainer.getWarmUpService().enable();
+
         // Set april tags to use the correct origin (red or blue corner)
         FieldConstants.setAprilTagOrigin();
 
@@ -91,8 +208,6 @@ public class Robot extends TimedRobot {
 
     @Override
     public void disabledPeriodic() {
-        robotContainer.autonomousManager.update();
-
         // Indicate if the battery is at voltage
         if (RobotController.getBatteryVoltage() > GlobalConstants.batteryVoltageThreshold)
             LEDSegment.BatteryIndicator.setColor(LightsSubsystem.green.dim(4));
@@ -119,10 +234,14 @@ public class Robot extends TimedRobot {
         // Passive Main LED Mode
         LEDSegment.MainStrip.setFadeAnimation(LightsSubsystem.orange, 0.5);
         // LightsSubsystem.runDefaultMainStripAnimation();
+
+        robotContainer.getWarmUpService().runDisabled();
     }
 
     @Override
-    public void testInit() {}
+    public void testInit() {
+        robotContainer.getWarmUpService().enable();
+    }
 
     @Override
     public void testPeriodic() {}
@@ -7,15 +7,19 @@ import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.TimesliceRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.lib.controller.Axis;
 import frc.lib.controller.LogitechController;
 import frc.lib.controller.ThrustmasterJoystick;
 import frc.lib.logging.Logger;
+import frc.lib.loops.MultiRateExecutor;
+import frc.lib.loops.UpdateManager;
+import frc.lib.startup.WarmUpService;
 import frc.robot.Constants.ControllerConstants;
 import frc.robot.Constants.FieldConstants;
 import frc.robot.Constants.FieldConstants.PlacementLocation;
+import frc.robot.Constants.TimesliceConstants;
 import frc.robot.commands.AimAtPoseCommand;
 import frc.robot.commands.AssistedDriveToPositionCommand;
 import frc.robot.commands.DriveToPositionCommand;
@@ -40,9 +44,32 @@ public class RobotContainer {
 
     public AutonomousManager autonomousManager;
 
-    public RobotContainer(TimedRobot robot) {
+    private final UpdateManager updateManager;
+
+    private final MultiRateExecutor multiRateExecutor = new MultiRateExecutor(TimesliceConstants.multiRatePriority);
+
+    private final WarmUpService warmUpService = new WarmUpService();
+
+    public RobotContainer(TimesliceRobot robot) {
         autonomousManager = new AutonomousManager(this);
 
+        // Subsystems update in their own timeslices, after commands have run
+        updateManager = new UpdateManager(robot);
+        updateManager.schedule(swerveDriveSubsystem, TimesliceConstants.swerveDriveTimeslice);
+        updateManager.schedule(armSubsystem, TimesliceConstants.armTimeslice);
+        updateManager.schedule(gripperSubsystem, TimesliceConstants.gripperTimeslice);
+
+        // Odometry benefits from running faster than the main loop, and temperatures need far less
+        multiRateExecutor.schedule(
+                "Odometry", swerveDriveSubsystem::updateOdometry, TimesliceConstants.odometryRate);
+        multiRateExecutor.schedule(
+                "Temperatures", swerveDriveSubsystem::updateTemperatures, TimesliceConstants.temperatureRate);
+
+        // Code that first runs when enabled is loaded and compiled while disabled instead
+        swerveDriveSubsystem.addWarmUps(warmUpService);
+        armSubsystem.addWarmUps(warmUpService);
+        autonomousManager.addWarmUps(warmUpService);
+
         configureBindings();
     }
 
@@ -206,6 +233,18 @@ public class RobotContainer {
         return rightDriveController.getXAxis();
     }
 
+    public UpdateManager getUpdateManager() {
+        return updateManager;
+    }
+
+    public MultiRateExecutor getMultiRateExecutor() {
+        return multiRateExecutor;
+    }
+
+    public WarmUpService getWarmUpService() {
+        return warmUpService;
+    }
+
     public SwerveDriveSubsystem getSwerveDriveSubsystem() {
         return swerveDriveSubsystem;
     }
@@ -214,6 +253,10 @@ public class RobotContainer {
         return lightsSubsystem;
     }
 
+    public GripperSubsystem getGripperSubsystem() {
+        return gripperSubsystem;
+    }
+
     // public VisionSubsystem getVisionSubsystem() {
     //     return visionSubsystem;
     // }
@@ -0,0 +1,52 @@
+package frc.robot;
+
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.lib.sim.SimulationScript;
+import frc.robot.Constants.ControllerConstants;
+
+/**
+ * The match the simulation runner drives the robot through: a full autonomous, the pause before teleop, and a full
+ * teleop of scripted driving.
+ */
+public final class SimulatedMatch {
+    private static final double autonomousDuration = 15;
+    private static final double transitionDuration = 1;
+    private static final double teleopDuration = 135;
+
+    private static final double driveCycleDuration = 10;
+
+    private SimulatedMatch() {}
+
+    public static SimulationScript create() {
+        return new SimulationScript()
+                .disabled(transitionDuration)
+                .autonomous(autonomousDuration)
+                .disabled(transitionDuration)
+                .teleop(teleopDuration, SimulatedMatch::drive);
+    }
+
+    /**
+     * Drives forwards, strafes, and turns in a repeating cycle, then holds the gripper open before the next cycle.
+     */
+    private static void drive(double phaseTime) {
+        double cycleTime = phaseTime % driveCycleDuration;
+
+        // Pushing a joystick forwards reads as negative
+        double forward = cycleTime < 3 ? -0.5 : 0;
+        double strafe = cycleTime >= 3 && cycleTime < 6 ? 0.5 : 0;
+        double rotation = cycleTime >= 6 && cycleTime < 8 ? 0.3 : 0;
+        boolean isGripperOpen = cycleTime >= 8;
+
+        setJoystick(ControllerConstants.LEFT_DRIVE_CONTROLLER, strafe, forward, isGripperOpen);
+        setJoystick(ControllerConstants.RIGHT_DRIVE_CONTROLLER, rotation, 0, false);
+    }
+
+    private static void setJoystick(int port, double x, double y, boolean isTriggerPressed) {
+        DriverStationSim.setJoystickAxisCount(port, 4);
+        DriverStationSim.setJoystickAxis(port, 0, x);
+        DriverStationSim.setJoystickAxis(port, 1, y);
+
+        DriverStationSim.setJoystickButtonCount(port, 16);
+        DriverStationSim.setJoystickButtons(port, isTriggerPressed ? 1 : 0);
+    }
+}
@@ -29,23 +29,32 @@ import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj.util.Color8Bit;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.lib.logging.LoggedReceiver;
+import frc.lib.logging.LogHandle.DoubleHandle;
+import frc.lib.logging.LogHandle.StructDoublesHandle;
+import frc.lib.logging.LogStruct;
+import frc.lib.logging.Logged;
+import frc.lib.logging.LoggedTunable;
 import frc.lib.logging.Logger;
+import frc.lib.loops.Updatable;
 import frc.lib.math.Conversions;
 import frc.lib.math.MathUtils;
 import frc.lib.math.TwoJointedFourBarArmFeedforward;
+import frc.lib.startup.DeviceConfigurator;
+import frc.lib.startup.DeviceConfigurator.Task;
+import frc.lib.startup.WarmUpService;
 import frc.robot.Constants.ArmConstants;
 import frc.robot.Constants.FieldConstants;
 import frc.robot.Constants.FieldConstants.PlacementLocation;
 import frc.robot.Constants.GlobalConstants;
 import frc.robot.Constants.GripperConstants;
 import frc.robot.Constants.SwerveConstants;
+import frc.robot.Constants.TimesliceConstants;
 import frc.robot.Robot;
 import java.util.function.DoubleSupplier;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-public class ArmSubsystem extends SubsystemBase {
+public class ArmSubsystem extends SubsystemBase implements Updatable {
     private Mechanism2d mechanism = new Mechanism2d(4, 4);
     private MechanismRoot2d root = mechanism.getRoot("Arm", 2, 2);
     private MechanismLigament2d arm1;
@@ -77,7 +86,11 @@ public class ArmSubsystem extends SubsystemBase {
     private Rotation2d lastArm1Position;
     private Rotation2d lastArm2Position;
 
-    LoggedReceiver desiredNetworkTablesArmPosition;
+    LoggedTunable desiredNetworkTablesArmPosition;
+
+    // Derived from the tunable arm pose whenever it changes
+    private Translation2d networkTablesArmPosition = new Translation2d(1, 0);
+    private Rotation2d networkTablesGripperRotation = Rotation2d.fromDegrees(0);
 
     private WPI_TalonFX joint1Motor;
     private WPI_TalonFX joint2Motor;
@@ -92,6 +105,31 @@ public class ArmSubsystem extends SubsystemBase {
 
     private boolean brakingActivated;
 
+    // The motors are not driven or calibrated until every one of them is configured
+    private final Task[] configurations;
+
+    // Generated from the @Logged members
+    private final ArmSubsystemLogger logger = new ArmSubsystemLogger();
+
+    // Only logged on the real robot
+    private final DoubleHandle arm1IntegratedAngleHandle = Logger.doubleHandle("/ArmSubsystem/arm1IntegratedAngle");
+    private final DoubleHandle arm2IntegratedAngleHandle = Logger.doubleHandle("/ArmSubsystem/arm2IntegratedAngle");
+    private final DoubleHandle arm1IntegratedSpeedHandle = Logger.doubleHandle("/ArmSubsystem/arm1IntegratedSpeed");
+    private final DoubleHandle arm2IntegratedSpeedHandle = Logger.doubleHandle("/ArmSubsystem/arm2IntegratedSpeed");
+
+    // Only logged when the desired position is updated
+    private final StructDoublesHandle<Translation2d> desiredEndEffectorHandle =
+            Logger.doubleArrayHandle("/ArmSubsystem/desiredEndEffector", LogStruct.translation2d);
+
+    // Only logged when the PIDF runs
+    private final DoubleHandle arm1AngleSetpointHandle = Logger.doubleHandle("/ArmSubsystem/arm1AngleSetpoint");
+    private final DoubleHandle arm2AngleSetpointHandle = Logger.doubleHandle("/ArmSubsystem/arm2AngleSetpoint");
+    private final DoubleHandle gripperPositionSetpointHandle =
+            Logger.doubleHandle("/ArmSubsystem/gripperPositionSetpoint");
+    private final DoubleHandle arm1SpeedSetpointHandle = Logger.doubleHandle("/ArmSubsystem/arm1SpeedSetpoint");
+    private final DoubleHandle arm2SpeedSetpointHandle = Logger.doubleHandle("/ArmSubsystem/arm2SpeedSetpoint");
+    private final DoubleHandle gripperSpeedSetpointHandle = Logger.doubleHandle("/ArmSubsystem/gripperSpeedSetpoint");
+
     private ProfiledPIDController motor1Controller;
     private ProfiledPIDController motor2Controller;
     private ProfiledPIDController gripperMotorController;
@@ -154,13 +192,6 @@ public class ArmSubsystem extends SubsystemBase {
         joint2Motor = new WPI_TalonFX(ArmConstants.boomMotorPort, GlobalConstants.CANIVORE_NAME);
         gripperMotor = new WPI_TalonSRX(ArmConstants.wristMotorPort); // wrist motor
 
-        joint1Motor.configVoltageCompSaturation(GlobalConstants.targetVoltage);
-        joint2Motor.configVoltageCompSaturation(GlobalConstants.targetVoltage);
-        gripperMotor.configVoltageCompSaturation(GlobalConstants.targetVoltage);
-        joint1Motor.enableVoltageCompensation(true);
-        joint2Motor.enableVoltageCompensation(true);
-        gripperMotor.enableVoltageCompensation(true);
-
         // Configure motor soft limits for safety
         // joint1Motor.configForwardSoftLimitEnable(true);
         // joint1Motor.configForwardSoftLimitThreshold(Conversions.radiansToFalcon(ArmConstants.arm1MaximumAngle,
@@ -176,16 +207,39 @@ public class ArmSubsystem extends SubsystemBase {
         // joint2Motor.configReverseSoftLimitThreshold(Conversions.radiansToFalcon(ArmConstants.arm2MinimumAngle,
         // ArmConstants.arm2GearRatio));
 
+        // Created before configuring the motors, which calibrate against them
         joint1AbsoluteEncoder = new DutyCycleEncoder(ArmConstants.mastEncoderChannel);
         joint2AbsoluteEncoder = new DutyCycleEncoder(ArmConstants.boomEncoderChannel);
         gripperAbsoluteEncoder = new DutyCycleEncoder(ArmConstants.gripperEncoderChannel);
 
-        joint1Motor.setInverted(ArmConstants.invertMastMotor);
-        joint2Motor.setInverted(ArmConstants.invertBoomMotor);
-        gripperMotor.setInverted(ArmConstants.invertWristMotor);
+        Task joint1Configuration = DeviceConfigurator.configure("Arm/Mast Motor", () -> {
+            DeviceConfigurator.check(
+                    joint1Motor.configVoltageCompSaturation(GlobalConstants.targetVoltage), "Voltage compensation");
+            joint1Motor.enableVoltageCompensation(true);
+            joint1Motor.setInverted(ArmConstants.invertMastMotor);
+
+            // Calibrate the joint motor
+            if (Robot.isReal()) calibrateJoint1Encoder();
+        });
+
+        Task joint2Configuration = DeviceConfigurator.configure("Arm/Boom Motor", () -> {
+            DeviceConfigurator.check(
+                    joint2Motor.configVoltageCompSaturation(GlobalConstants.targetVoltage), "Voltage compensation");
+            joint2Motor.enableVoltageCompensation(true);
+            joint2Motor.setInverted(ArmConstants.invertBoomMotor);
+
+            // Calibrate the joint motor
+            if (Robot.isReal()) calibrateJoint2Encoder();
+        });
 
-        // Calibrate the joint motors
-        if (Robot.isReal()) calibrateIntegratedEncoders();
+        Task gripperConfiguration = DeviceConfigurator.configure("Arm/Wrist Motor", () -> {
+            DeviceConfigurator.check(
+                    gripperMotor.configVoltageCompSaturation(GlobalConstants.targetVoltage), "Voltage compensation");
+            gripperMotor.enableVoltageCompensation(true);
+            gripperMotor.setInverted(ArmConstants.invertWristMotor);
+        });
+
+        configurations = new Task[] {joint1Configuration, joint2Configuration, gripperConfiguration};
 
         gripperEndAngle = GripperConstants.startingAngle;
 
@@ -197,7 +251,8 @@ public class ArmSubsystem extends SubsystemBase {
                 GripperConstants.length,
                 GripperConstants.startingAngle);
 
-        desiredNetworkTablesArmPosition = Logger.tunable("/ArmSubsystem/Arm Pose", new double[] {1, 0, 0});
+        desiredNetworkTablesArmPosition = Logger.tunable("/ArmSubsystem/Arm Pose", new double[] {1, 0, 0})
+                .onChange(this::updateNetworkTablesArmPose);
 
         SmartDashboard.putData("Arm Mechanism", mechanism);
 
@@ -262,6 +317,24 @@ public class ArmSubsystem extends SubsystemBase {
         //System.out.println(forwardKinematics(arm1.getLength(), arm1Angle, arm2.getLength(), arm2Angle, gripper.getLength(), gripperAngle));
     }
 
+    /**
+     * Adds exercises of the arm's control math, using separate controllers so the arm's own are untouched. The
+     * feedforwards only read their constants, so they are shared.
+     */
+    public void addWarmUps(WarmUpService warmUpService) {
+        ProfiledPIDController warmUpController = new ProfiledPIDController(0.45, 0, 0.01, motor1Constraints);
+
+        warmUpService.addBackground("Arm Control", WarmUpService.compileIterations, iteration -> {
+            double angle = Math.sin(iteration * 0.01);
+
+            warmUpController.setGoal(-angle);
+            warmUpController.calculate(angle);
+
+            feedforward.calculateFeedforwardVoltages(angle, -angle, 0, 0, 0, 0);
+            gripperJointFeedforward.calculate(angle, warmUpController.getSetpoint().velocity, 0);
+        });
+    }
+
     public void resetPIDControllers() {
         motor1Controller.reset(arm1Angle.getRadians());
         motor2Controller.reset(arm2Angle.getRadians());
@@ -366,7 +439,7 @@ public class ArmSubsystem extends SubsystemBase {
             gripperEndAngle = armType.getGripperAngle(this);
         }
 
-        Logger.log("/ArmSubsystem/desiredEndEffector", new double[] {endEffector.getX(), endEffector.getY()});
+        desiredEndEffectorHandle.set(endEffector);
 
         // Find the joint angles needed to reach the end effector
         Matrix<N3, N1> armAndWristAngles = inverseKinematics(endEffector, gripperEndAngle);
@@ -399,13 +472,15 @@ public class ArmSubsystem extends SubsystemBase {
                         + ArmConstants.gripperEncoderOffset);
     }
 
-    private Rotation2d getJoint1EncoderAngle() {
+    @Logged("arm1EncoderPosition")
+    Rotation2d getJoint1EncoderAngle() {
         return putAngleInto180Scope(
                 ArmConstants.mastEncoderMultiplier * joint1AbsoluteEncoder.getAbsolutePosition() * 2 * Math.PI
                         + ArmConstants.mastEncoderOffset);
     }
 
-    private Rotation2d getJoint2EncoderAngle() {
+    @Logged("arm2EncoderPosition")
+    Rotation2d getJoint2EncoderAngle() {
         // Invert this encoder because of mounting location
         return putAngleInto180Scope(
                 ArmConstants.boomEncoderMultiplier * (1 - joint2AbsoluteEncoder.getAbsolutePosition()) * 2 * Math.PI
@@ -429,15 +504,23 @@ public class ArmSubsystem extends SubsystemBase {
     }
 
     private void calibrateIntegratedEncoders() {
+        calibrateJoint1Encoder();
+        calibrateJoint2Encoder();
+    }
+
+    private void calibrateJoint1Encoder() {
         joint1Motor.setSelectedSensorPosition(
                 Conversions.radiansToFalcon(getJoint1EncoderAngle().getRadians(), ArmConstants.arm1GearRatio));
+    }
 
+    private void calibrateJoint2Encoder() {
         // Inverted because inverted motor needs uninverted measurement first
         joint2Motor.setSelectedSensorPosition(
-                Conversions.radiansToFalcon(-getJoint2EncoderAngle().getRadians(), ArmConstants.arm2GearRatio));        
+                Conversions.radiansToFalcon(-getJoint2EncoderAngle().getRadians(), ArmConstants.arm2GearRatio));
     }
 
-    private boolean isArmAtGoal() {
+    @Logged("isArmAtPosition")
+    boolean isArmAtGoal() {
         return MathUtils.equalsWithinError(
                         arm1Angle.getRadians(), joint1DesiredMotorPosition, ArmConstants.angularTolerance)
                 && MathUtils.equalsWithinError(
@@ -473,15 +556,11 @@ public class ArmSubsystem extends SubsystemBase {
     }
 
     @Override
-    public void periodic() {
+    public void update() {
         // Update internal model with real motor values
         if (Robot.isReal()) {
-            Logger.log(
-                    "/ArmSubsystem/arm1IntegratedAngle",
-                    getJoint1IntegratedAngle().getRadians());
-            Logger.log(
-                    "/ArmSubsystem/arm2IntegratedAngle",
-                    getJoint2IntegratedAngle().getRadians());
+            arm1IntegratedAngleHandle.set(getJoint1IntegratedAngle().getRadians());
+            arm2IntegratedAngleHandle.set(getJoint2IntegratedAngle().getRadians());
 
             lastArm1Position = arm1Angle;
             lastArm2Position = arm2Angle;
@@ -491,11 +570,9 @@ public class ArmSubsystem extends SubsystemBase {
             arm2Angle = getJoint2EncoderAngle();
             gripperAngle = getGripperEncoderAngle();
 
-            Logger.log(
-                    "/ArmSubsystem/arm1IntegratedSpeed",
+            arm1IntegratedSpeedHandle.set(
                     Conversions.falconToRadPS(joint1Motor.getSelectedSensorVelocity(), ArmConstants.arm1GearRatio));
-            Logger.log(
-                    "/ArmSubsystem/arm2IntegratedSpeed",
+            arm2IntegratedSpeedHandle.set(
                     Conversions.falconToRadPS(joint2Motor.getSelectedSensorVelocity(), ArmConstants.arm1GearRatio));
 
             // arm1Speed = arm1Angle.minus(lastArm1Position).getRadians() / 0.02;
@@ -515,18 +592,22 @@ public class ArmSubsystem extends SubsystemBase {
             updateArmDesiredPosition();
         }
 
-        // Enable brake mode when the joints are at the right position
-        if ((isArmAtGoal() || armState.getType() instanceof Brake) && !(armState.getType() instanceof PassthroughAim)) {
-            stopMotors();
-
-            calibrateIntegratedEncoders();
-        } else {
-            startMotors();
-        }
-
-        // Run the PIDF system unless we are in one of the "special" modes
-        if (armState != ArmState.COAST && armState != ArmState.BRAKE && armState != ArmState.PASSTHROUGH) {
-            executePIDFeedforward();
+        // Motors still configuring after the startup timeout are left alone until they finish
+        if (DeviceConfigurator.isDone(configurations)) {
+            // Enable brake mode when the joints are at the right position
+            if ((isArmAtGoal() || armState.getType() instanceof Brake)
+                    && !(armState.getType() instanceof PassthroughAim)) {
+                stopMotors();
+
+                calibrateIntegratedEncoders();
+            } else {
+                startMotors();
+            }
+
+            // Run the PIDF system unless we are in one of the "special" modes
+            if (armState != ArmState.COAST && armState != ArmState.BRAKE && armState != ArmState.PASSTHROUGH) {
+                executePIDFeedforward();
+            }
         }
 
         // We still have this for some reason
@@ -536,20 +617,64 @@ public class ArmSubsystem extends SubsystemBase {
             cycleModeIndex %= ArmState.values().length;
         }
 
-        Logger.log("/ArmSubsystem/arm1Angle", arm1Angle.getRadians());
-        Logger.log("/ArmSubsystem/arm2Angle", arm2Angle.getRadians());
-        Logger.log("/ArmSubsystem/arm1Speed", arm1Speed);
-        Logger.log("/ArmSubsystem/arm2Speed", arm2Speed);
-        Logger.log("/ArmSubsystem/gripperAngle", gripperAngle.getRadians());
-        Logger.log("/ArmSubsystem/gripperSpeed", gripperSpeed);
-        Logger.log("/ArmSubsystem/arm1DesiredPosition", joint1DesiredMotorPosition);
-        Logger.log("/ArmSubsystem/arm2DesiredPosition", joint2DesiredMotorPosition);
-        Logger.log("/ArmSubsystem/gripperDesiredPosition", gripperDesiredMotorPosition);
-        Logger.log("/ArmSubsystem/arm1EncoderPosition", getJoint1EncoderAngle().getRadians());
-        Logger.log("/ArmSubsystem/arm2EncoderPosition", getJoint2EncoderAngle().getRadians());
-        Logger.log("/ArmSubsystem/isBraking", brakingActivated);
-        Logger.log("/ArmSubsystem/isCoasting", armState == ArmState.COAST);
-        Logger.log("/ArmSubsystem/isArmAtPosition", isArmAtGoal());
+        logger.log(this);
+    }
+
+    /* Logged values - Read by the generated logger, which cannot read private fields */
+
+    @Logged
+    boolean isCoasting() {
+        return armState == ArmState.COAST;
+    }
+
+    @Logged("isBraking")
+    boolean isBraking() {
+        return brakingActivated;
+    }
+
+    @Logged("arm1Angle")
+    Rotation2d getArm1Angle() {
+        return arm1Angle;
+    }
+
+    @Logged("arm2Angle")
+    Rotation2d getArm2Angle() {
+        return arm2Angle;
+    }
+
+    @Logged("gripperAngle")
+    Rotation2d getGripperAngle() {
+        return gripperAngle;
+    }
+
+    @Logged("arm1Speed")
+    double getArm1Speed() {
+        return arm1Speed;
+    }
+
+    @Logged("arm2Speed")
+    double getArm2Speed() {
+        return arm2Speed;
+    }
+
+    @Logged("gripperSpeed")
+    double getGripperSpeed() {
+        return gripperSpeed;
+    }
+
+    @Logged("arm1DesiredPosition")
+    double getJoint1DesiredPosition() {
+        return joint1DesiredMotorPosition;
+    }
+
+    @Logged("arm2DesiredPosition")
+    double getJoint2DesiredPosition() {
+        return joint2DesiredMotorPosition;
+    }
+
+    @Logged("gripperDesiredPosition")
+    double getGripperDesiredPosition() {
+        return gripperDesiredMotorPosition;
     }
 
     private void executePIDFeedforward() {
@@ -615,12 +740,12 @@ public class ArmSubsystem extends SubsystemBase {
         // Logger.log("/ArmSubsystem/arm1Voltage", ffVoltages[0]);
         // Logger.log("/ArmSubsystem/arm2Voltage", ffVoltages[1]);
         // Logger.log("/ArmSubsystem/gripperVoltage", gripperVoltage);
-        Logger.log("/ArmSubsystem/arm1AngleSetpoint", motor1Controller.getSetpoint().position);
-        Logger.log("/ArmSubsystem/arm2AngleSetpoint", motor2Controller.getSetpoint().position);
-        Logger.log("/ArmSubsystem/gripperPositionSetpoint", gripperMotorController.getSetpoint().position);
-        Logger.log("/ArmSubsystem/arm1SpeedSetpoint", motor1Controller.getSetpoint().velocity);
-        Logger.log("/ArmSubsystem/arm2SpeedSetpoint", motor2Controller.getSetpoint().velocity);
-        Logger.log("/ArmSubsystem/gripperSpeedSetpoint", gripperMotorController.getSetpoint().velocity);
+        arm1AngleSetpointHandle.set(motor1Controller.getSetpoint().position);
+        arm2AngleSetpointHandle.set(motor2Controller.getSetpoint().position);
+        gripperPositionSetpointHandle.set(gripperMotorController.getSetpoint().position);
+        arm1SpeedSetpointHandle.set(motor1Controller.getSetpoint().velocity);
+        arm2SpeedSetpointHandle.set(motor2Controller.getSetpoint().velocity);
+        gripperSpeedSetpointHandle.set(gripperMotorController.getSetpoint().velocity);
     }
 
     @Override
@@ -653,12 +778,15 @@ public class ArmSubsystem extends SubsystemBase {
                             .minus(simFeedforward.calculateBackEmfMatrix().times(speeds)));
         }
 
-        angles = angles.plus(speeds.times(0.02)).plus(acceleration.times(.5 * 0.02 * 0.02));
-        speeds = speeds.plus(acceleration.times(0.02)).times(1);
+        // Simulation steps the clock by exactly one loop period per loop, whether it runs in real time or not
+        double dt = TimesliceConstants.controllerPeriod;
+
+        angles = angles.plus(speeds.times(dt)).plus(acceleration.times(.5 * dt * dt));
+        speeds = speeds.plus(acceleration.times(dt)).times(1);
 
         arm1Angle = new Rotation2d(angles.get(0, 0));
         arm2Angle = new Rotation2d(angles.get(1, 0));
-        gripperAngle = gripperAngle.plus(new Rotation2d(gripperMotorController.getSetpoint().velocity * 0.02));
+        gripperAngle = gripperAngle.plus(new Rotation2d(gripperMotorController.getSetpoint().velocity * dt));
 
         arm1Speed = speeds.get(0, 0);
         arm2Speed = speeds.get(1, 0);
@@ -697,24 +825,29 @@ public class ArmSubsystem extends SubsystemBase {
         return targetEndEffector;
     }
 
-    public Translation2d getNetworkTablesArmPosition() {
+    private void updateNetworkTablesArmPose() {
         double[] armPosition = desiredNetworkTablesArmPosition.getDoubleArray();
         try {
-            return new Translation2d(armPosition[0], armPosition[1]);
+            networkTablesArmPosition = new Translation2d(armPosition[0], armPosition[1]);
         } catch (Exception e) {
-            return new Translation2d(0, 0);
+            networkTablesArmPosition = new Translation2d(0, 0);
         }
-    }
 
-    public Rotation2d getNetworkTablesGripperRotation() {
-        double[] armPosition = desiredNetworkTablesArmPosition.getDoubleArray();
         try {
-            return Rotation2d.fromDegrees(armPosition[2]);
+            networkTablesGripperRotation = Rotation2d.fromDegrees(armPosition[2]);
         } catch (Exception e) {
-            return Rotation2d.fromDegrees(0);
+            networkTablesGripperRotation = Rotation2d.fromDegrees(0);
         }
     }
 
+    public Translation2d getNetworkTablesArmPosition() {
+        return networkTablesArmPosition;
+    }
+
+    public Rotation2d getNetworkTablesGripperRotation() {
+        return networkTablesGripperRotation;
+    }
+
     public Transform3d getArmEndEffectorTransform3d() {
         Translation2d endEffector = forwardKinematics(
                 arm1.getLength(), arm1Angle, arm2.getLength(), arm2Angle, gripper.getLength(), gripperAngle);
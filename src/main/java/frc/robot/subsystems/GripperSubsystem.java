@@ -8,28 +8,37 @@ import edu.wpi.first.wpilibj.DoubleSolenoid.Value;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.lib.logging.LoggedReceiver;
+import frc.lib.logging.LoggedTunable;
 import frc.lib.logging.Logger;
+import frc.lib.loops.Updatable;
+import frc.lib.startup.DeviceConfigurator;
+import frc.lib.startup.DeviceConfigurator.Task;
 import frc.robot.Constants.GlobalConstants;
 import frc.robot.Constants.GripperConstants;
 
-public class GripperSubsystem extends SubsystemBase {
+public class GripperSubsystem extends SubsystemBase implements Updatable {
     private DoubleSolenoid gripperSolenoid;
     private WPI_TalonSRX gripperMotor = new WPI_TalonSRX(GripperConstants.gripperMotor);
 
     private GripperState gripperState = GripperState.DISABLED;
 
-    private LoggedReceiver gripperIntakeSpeed;
-    private LoggedReceiver gripperEjectSpeed;
+    // The motor is left alone until it is configured
+    private final Task configuration;
+
+    private LoggedTunable gripperIntakeSpeed;
+    private LoggedTunable gripperEjectSpeed;
 
     public GripperSubsystem() {
         gripperSolenoid = new DoubleSolenoid(GlobalConstants.PCM_ID,
             PneumaticsModuleType.REVPH, GripperConstants.FORWARD_CHANNEL, GripperConstants.REVERSE_CHANNEL);
 
-        gripperMotor.setNeutralMode(NeutralMode.Brake);
-        gripperMotor.configVoltageCompSaturation(GlobalConstants.targetVoltage);
-        gripperMotor.enableVoltageCompensation(true);
-        gripperMotor.setInverted(false);
+        configuration = DeviceConfigurator.configure("Gripper/Motor", () -> {
+            gripperMotor.setNeutralMode(NeutralMode.Brake);
+            DeviceConfigurator.check(
+                    gripperMotor.configVoltageCompSaturation(GlobalConstants.targetVoltage), "Voltage compensation");
+            gripperMotor.enableVoltageCompensation(true);
+            gripperMotor.setInverted(false);
+        });
 
         // SupplyCurrentLimitConfiguration supplyLimit = new SupplyCurrentLimitConfiguration(true, 20, 30, 0.1);
 
@@ -54,7 +63,9 @@ public class GripperSubsystem extends SubsystemBase {
     }
 
     @Override
-    public void periodic() {
+    public void update() {
+        if (!configuration.isDone()) return;
+
         switch (gripperState) {
             case DISABLED:
                 gripperSolenoid.set(Value.kReverse);
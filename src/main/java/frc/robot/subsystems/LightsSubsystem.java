@@ -14,6 +14,7 @@ import com.ctre.phoenix.led.SingleFadeAnimation;
 import com.ctre.phoenix.led.StrobeAnimation;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.startup.DeviceConfigurator;
 import frc.robot.Constants.LightsConstants;
 
 public class LightsSubsystem extends SubsystemBase {
@@ -40,7 +41,9 @@ public class LightsSubsystem extends SubsystemBase {
         candleConfiguration.stripType = LEDStripType.RGB;
         candleConfiguration.brightnessScalar = 1.0;
         candleConfiguration.vBatOutputMode = VBatOutputMode.Modulated;
-        candle.configAllSettings(candleConfiguration, 100);
+        DeviceConfigurator.configure(
+                "Lights/CANdle",
+                () -> DeviceConfigurator.check(candle.configAllSettings(candleConfiguration, 100), "Settings"));
 
         setDefaultCommand(defaultCommand());
     }
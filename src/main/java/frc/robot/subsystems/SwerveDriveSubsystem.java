@@ -21,40 +21,77 @@ import frc.lib.gyro.GenericGyro;
 import frc.lib.gyro.NavXGyro;
 import frc.lib.gyro.PigeonGyro;
 import frc.lib.interpolation.MovingAverageVelocity;
-import frc.lib.logging.LoggedReceiver;
+import frc.lib.logging.Logged;
+import frc.lib.logging.LoggedTunable;
 import frc.lib.logging.Logger;
+import frc.lib.loops.TripleBuffer;
+import frc.lib.loops.Updatable;
 import frc.lib.math.MathUtils;
+import frc.lib.startup.DeviceConfigurator;
+import frc.lib.startup.DeviceConfigurator.Task;
+import frc.lib.startup.WarmUpService;
+import frc.lib.swerve.SecondOrderSwerveKinematics;
 import frc.lib.swerve.SwerveDriveSignal;
 import frc.lib.swerve.SwerveModule;
 import frc.robot.Constants;
 import frc.robot.Constants.GlobalConstants;
 import frc.robot.Constants.SwerveConstants;
+import frc.robot.Constants.TimesliceConstants;
 import frc.robot.commands.FeedForwardCharacterization;
 import frc.robot.commands.FeedForwardCharacterization.FeedForwardCharacterizationData;
+import java.util.Arrays;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.DoubleStream;
 
-public class SwerveDriveSubsystem extends SubsystemBase {
+public class SwerveDriveSubsystem extends SubsystemBase implements Updatable {
     private final SwerveDrivePoseEstimator swervePoseEstimator;
 
-    private Pose2d pose = new Pose2d();
-    private final MovingAverageVelocity velocityEstimator = new MovingAverageVelocity(3);
-    private ChassisSpeeds velocity = new ChassisSpeeds();
+    // Odometry runs on its own thread, so the estimators are only used while holding this lock, and the pose and
+    // velocity are replaced rather than modified
+    private final Object odometryLock = new Object();
+    private volatile Pose2d pose = new Pose2d();
+    private final MovingAverageVelocity velocityEstimator = new MovingAverageVelocity(15); // ~ 60 ms at 250 Hz
+    private volatile ChassisSpeeds velocity = new ChassisSpeeds();
     private SwerveDriveSignal driveSignal = new SwerveDriveSignal();
 
     private SwerveModule[] modules;
 
-    private GenericGyro gyro;
+    // The modules are not driven until every device is configured
+    private final Task[] configurations;
+
+    private volatile GenericGyro gyro;
+
+    // Read by a slow update, since reading every motor's temperature is expensive
+    private final TripleBuffer<ModuleTemperatures> temperatures = new TripleBuffer<>(ModuleTemperatures::new);
 
     boolean isCharacterizing = false;
 
-    private LoggedReceiver isSecondOrder;
+    private LoggedTunable isSecondOrder;
+
+    // Generated from the @Logged members
+    private final SwerveDriveSubsystemLogger logger = new SwerveDriveSubsystemLogger();
+
+    // Reused by the logged module getters
+    private final double[] wheelAngles = new double[4];
+    private final double[] canCoderAngles = new double[4];
+    private final double[] loggedModuleStates = new double[8];
 
     public SwerveDriveSubsystem() {
-        if (SwerveConstants.hasPigeon)
-            gyro = new PigeonGyro(SwerveConstants.PIGEON_PORT, GlobalConstants.CANIVORE_NAME);
-        else gyro = new NavXGyro();
+        Task gyroConfiguration = null;
+
+        if (SwerveConstants.hasPigeon) {
+            PigeonGyro pigeon = new PigeonGyro(SwerveConstants.PIGEON_PORT, GlobalConstants.CANIVORE_NAME);
+
+            // Odometry reads the yaw, which is only as fresh as its status frame
+            gyroConfiguration = DeviceConfigurator.configure(
+                    "Swerve/Pigeon",
+                    () -> DeviceConfigurator.check(
+                            pigeon.setOrientationPeriod(TimesliceConstants.odometryStatusFramePeriod),
+                            "Orientation status frame"));
+
+            gyro = pigeon;
+        } else gyro = new NavXGyro();
 
         modules = new SwerveModule[] {
             new SwerveModule(0, Constants.SwerveConstants.Mod0.constants),
@@ -63,11 +100,6 @@ public class SwerveDriveSubsystem extends SubsystemBase {
             new SwerveModule(3, Constants.SwerveConstants.Mod3.constants)
         };
 
-        // Reset each module using its absolute encoder to avoid having modules fail to align
-        for (SwerveModule module : modules) {
-            module.resetToAbsolute();
-        }
-
         // Initialize the swerve drive pose estimator with access to the module positions.
         swervePoseEstimator = new SwerveDrivePoseEstimator(
                 SwerveConstants.swerveKinematics,
@@ -77,6 +109,29 @@ public class SwerveDriveSubsystem extends SubsystemBase {
                 VecBuilder.fill(0.01, 0.01, 0.01),
                 VecBuilder.fill(0.8, 0.8, 0.8));
 
+        // The modules are still being configured, so the estimator starts again from their configured positions
+        Task[] moduleConfigurations = Arrays.stream(modules)
+                .flatMap(module -> Arrays.stream(module.getConfigurations()))
+                .toArray(Task[]::new);
+
+        Task driveConfiguration = DeviceConfigurator.configure(
+                "Swerve Drive",
+                () -> {
+                    // Reset each module using its absolute encoder to avoid having modules fail to align
+                    for (SwerveModule module : modules) {
+                        module.resetToAbsolute();
+                    }
+
+                    synchronized (odometryLock) {
+                        swervePoseEstimator.resetPosition(getGyroRotation(), getModulePositions(), new Pose2d());
+                    }
+                },
+                moduleConfigurations);
+
+        configurations = gyroConfiguration != null
+                ? new Task[] {driveConfiguration, gyroConfiguration}
+                : new Task[] {driveConfiguration};
+
         // Allow us to toggle on second order kinematics
         isSecondOrder = Logger.tunable("/SwerveDriveSubsystem/isSecondOrder", false);
     }
@@ -175,22 +230,28 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         gyro = new NavXGyro();
     }
 
+    @Logged("Pose")
     public Pose2d getPose() {
         return pose;
     }
 
     public void setPose(Pose2d pose) {
-        this.pose = pose;
-        swervePoseEstimator.resetPosition(getGyroRotation(), getModulePositions(), pose);
+        synchronized (odometryLock) {
+            this.pose = pose;
+            swervePoseEstimator.resetPosition(getGyroRotation(), getModulePositions(), pose);
+        }
     }
 
     public void addVisionPoseEstimate(Pose2d pose, double timestamp) {
-        swervePoseEstimator.addVisionMeasurement(pose, timestamp);
+        synchronized (odometryLock) {
+            swervePoseEstimator.addVisionMeasurement(pose, timestamp);
+        }
     }
 
     /**
      * @return The robot relative velocity of the drivetrain
      */
+    @Logged("Velocity")
     public ChassisSpeeds getVelocity() {
         return velocity;
     }
@@ -198,10 +259,12 @@ public class SwerveDriveSubsystem extends SubsystemBase {
     /**
      * @return The potentially field relative desired velocity of the drivetrain
      */
+    @Logged("Desired Velocity")
     public ChassisSpeeds getDesiredVelocity() {
         return (ChassisSpeeds) driveSignal;
     }
 
+    @Logged("Velocity Magnitude")
     public double getVelocityMagnitude() {
         return Math.sqrt(Math.pow(velocity.vxMetersPerSecond, 2) + Math.pow(velocity.vyMetersPerSecond, 2));
     }
@@ -211,7 +274,9 @@ public class SwerveDriveSubsystem extends SubsystemBase {
     }
 
     public ChassisSpeeds getSmoothedVelocity() {
-        return velocityEstimator.getAverage();
+        synchronized (odometryLock) {
+            return velocityEstimator.getAverage();
+        }
     }
 
     public Rotation2d getGyroRotation() {
@@ -267,23 +332,65 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         driveSignal = new SwerveDriveSignal(true);
     }
 
+    @Override
     public void update() {
-        updateOdometry();
+        if (!isCharacterizing && DeviceConfigurator.isDone(configurations)) updateModules(driveSignal);
+
+        logger.log(this);
+    }
+
+    /**
+     * Adds an exercise of the second order kinematics, using separate kinematics since they keep the last center of
+     * rotation.
+     */
+    public void addWarmUps(WarmUpService warmUpService) {
+        SecondOrderSwerveKinematics warmUpKinematics =
+                new SecondOrderSwerveKinematics(SwerveConstants.moduleTranslations);
 
-        if (isCharacterizing) return;
+        warmUpService.addBackground("Swerve Kinematics", WarmUpService.compileIterations, iteration -> {
+            double angle = iteration * 0.01;
 
-        updateModules(driveSignal);
+            // Varied so the stationary and moving branches are both compiled
+            ChassisSpeeds speeds = iteration % 10 == 0
+                    ? new ChassisSpeeds()
+                    : new ChassisSpeeds(Math.cos(angle), Math.sin(angle), Math.sin(angle * 0.5));
+
+            SwerveModuleState[] moduleStates = warmUpKinematics.toSwerveModuleStates(speeds);
+            SwerveDriveKinematics.desaturateWheelSpeeds(moduleStates, SwerveConstants.maxSpeed);
+            warmUpKinematics.toChassisSpeeds(moduleStates);
+        });
     }
 
-    private void updateOdometry() {
+    /**
+     * Updates the pose and velocity from the modules and gyro. Runs faster than the main loop on its own thread.
+     */
+    public void updateOdometry() {
         SwerveModuleState[] moduleStates = getModuleStates();
         SwerveModulePosition[] modulePositions = getModulePositions();
+        Rotation2d gyroRotation = getGyroRotation();
 
-        velocity = Constants.SwerveConstants.swerveKinematics.toChassisSpeeds(moduleStates);
+        ChassisSpeeds velocity = Constants.SwerveConstants.swerveKinematics.toChassisSpeeds(moduleStates);
 
-        velocityEstimator.add(velocity);
+        synchronized (odometryLock) {
+            velocityEstimator.add(velocity);
 
-        pose = swervePoseEstimator.update(getGyroRotation(), modulePositions);
+            this.velocity = velocity;
+            pose = swervePoseEstimator.update(gyroRotation, modulePositions);
+        }
+    }
+
+    /**
+     * Reads the temperature of every motor. Runs slower than the main loop on its own thread.
+     */
+    public void updateTemperatures() {
+        ModuleTemperatures moduleTemperatures = temperatures.getWriteBuffer();
+
+        for (SwerveModule module : modules) {
+            moduleTemperatures.drive[module.moduleNumber] = module.getDriveTemperature();
+            moduleTemperatures.angle[module.moduleNumber] = module.getAngleTemperature();
+        }
+
+        temperatures.publish();
     }
 
     private void updateModules(SwerveDriveSignal driveSignal) {
@@ -334,32 +441,32 @@ public class SwerveDriveSubsystem extends SubsystemBase {
                 && driveSignal.omegaRadiansPerSecond == 0;
     }
 
-    @Override
-    public void periodic() {
-        update();
-
-        Logger.log("/SwerveDriveSubsystem/Pose", pose);
-        Logger.log("/SwerveDriveSubsystem/Velocity", velocity);
-        Logger.log("/SwerveDriveSubsystem/Desired Velocity", (ChassisSpeeds) driveSignal);
-
-        Logger.log("/SwerveDriveSubsystem/Velocity Magnitude", getVelocityMagnitude());
-
-        Logger.log("/SwerveDriveSubsystem/Wheel Angles", new double[] {
-            modules[0].getPosition().angle.getDegrees(),
-            modules[1].getPosition().angle.getDegrees(),
-            modules[2].getPosition().angle.getDegrees(),
-            modules[3].getPosition().angle.getDegrees()
-        });
+    @Logged("Wheel Angles")
+    double[] getWheelAngles() {
+        for (SwerveModule module : modules) {
+            wheelAngles[module.moduleNumber] = module.getAngleDegrees();
+        }
+        return wheelAngles;
+    }
 
-        Logger.log("/SwerveDriveSubsystem/CANCoder Angles", new double[] {
-            modules[0].getCanCoder().getDegrees(),
-            modules[1].getCanCoder().getDegrees(),
-            modules[2].getCanCoder().getDegrees(),
-            modules[3].getCanCoder().getDegrees()
-        });
+    @Logged("CANCoder Angles")
+    double[] getCANCoderAngles() {
+        for (SwerveModule module : modules) {
+            canCoderAngles[module.moduleNumber] = module.getCanCoderDegrees();
+        }
+        return canCoderAngles;
+    }
 
-        Logger.log("/SwerveDriveSubsystem/Drive Temperatures", getDriveTemperatures());
-        Logger.log("/SwerveDriveSubsystem/Angle Temperatures", getAngleTemperatures());
+    /**
+     * @return The module states in the angle then speed layout that dashboards read, which must not be modified.
+     */
+    @Logged("Module States")
+    double[] getLoggedModuleStates() {
+        for (SwerveModule module : modules) {
+            loggedModuleStates[module.moduleNumber * 2] = Math.toRadians(module.getAngleDegrees());
+            loggedModuleStates[module.moduleNumber * 2 + 1] = module.getSpeed();
+        }
+        return loggedModuleStates;
     }
 
     public SwerveModuleState[] getModuleStates() {
@@ -378,21 +485,24 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         return positions;
     }
 
+    /**
+     * @return The drive motor temperatures from the last slow update, which must not be modified.
+     */
+    @Logged("Drive Temperatures")
     public double[] getDriveTemperatures() {
-        return new double[] {
-            modules[0].getDriveTemperature(),
-            modules[1].getDriveTemperature(),
-            modules[2].getDriveTemperature(),
-            modules[3].getDriveTemperature()
-        };
+        return temperatures.read().drive;
     }
 
+    /**
+     * @return The angle motor temperatures from the last slow update, which must not be modified.
+     */
+    @Logged("Angle Temperatures")
     public double[] getAngleTemperatures() {
-        return new double[] {
-            modules[0].getAngleTemperature(),
-            modules[1].getAngleTemperature(),
-            modules[2].getAngleTemperature(),
-            modules[3].getAngleTemperature()
-        };
+        return temperatures.read().angle;
+    }
+
+    private static class ModuleTemperatures {
+        private final double[] drive = new double[4];
+        private final double[] angle = new double[4];
     }
 }
@@ -0,0 +1,197 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.logging.Logger;
+import frc.robot.Constants.TimesliceConstants;
+import frc.robot.subsystems.ArmSubsystem;
+import frc.robot.subsystems.GripperSubsystem;
+import frc.robot.subsystems.SwerveDriveSubsystem;
+import frc.robot.subsystems.VisionSubsystem;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+/**
+ * Runs the robot enabled in teleop against the simulated HAL, and checks how many bytes are allocated per loop
+ * against their budgets: by the whole loop, by the logging threads, and by each subsystem's update and the Logger's
+ * update on their own. Loops are run before measuring so class loading and compilation are not counted.
+ */
+class AllocationBudgetTest {
+    /*
+     * Budgets - Bytes per loop. Each should be the figure this test prints plus a 25% margin, these are ceilings until
+     * it has been measured on a desktop
+     */
+    private static final long loopBudget = 64L * 1024;
+    private static final long loggingThreadsBudget = 32L * 1024;
+    private static final long swerveDriveBudget = 16L * 1024;
+    private static final long armBudget = 32L * 1024;
+    private static final long visionBudget = 8L * 1024;
+    private static final long gripperBudget = 2L * 1024;
+    private static final long loggerBudget = 4L * 1024;
+
+    private static final int warmUpLoops = 1000;
+    private static final int measuredLoops = 1000;
+
+    // Logger's writer threads are named after this
+    private static final String loggingThreadName = "Logging Thread";
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void teleopLoopIsWithinAllocationBudgets() {
+        assertTrue(HAL.initialize(500, 0), "Failed to initialize the HAL");
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "This JVM cannot measure allocations");
+
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // The clock only moves when stepped, so the loop runs as fast as the CPU allows
+        SimHooks.pauseTiming();
+
+        Robot robot = new Robot();
+        robot.initializeHeadless();
+
+        RobotContainer robotContainer = robot.getRobotContainer();
+        Parts parts = new Parts(robotContainer);
+
+        // Teleop, so the default commands are running
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+
+        runLoops(robot, warmUpLoops);
+        parts.run(warmUpLoops);
+        parts.reset();
+        assertTrue(Logger.flush(10), "Logging threads did not catch up");
+
+        long loggingThreadsStart = getLoggingThreadsAllocated();
+        long loopStart = threads.getCurrentThreadAllocatedBytes();
+
+        runLoops(robot, measuredLoops);
+
+        // Read first, so flushing is not counted as part of the loop
+        long loopAllocated = (threads.getCurrentThreadAllocatedBytes() - loopStart) / measuredLoops;
+        assertTrue(Logger.flush(10), "Logging threads did not catch up");
+        long loggingThreadsAllocated = (getLoggingThreadsAllocated() - loggingThreadsStart) / measuredLoops;
+
+        parts.run(measuredLoops);
+
+        assertAll(
+                check("Loop", loopAllocated, loopBudget),
+                check("Logging threads", loggingThreadsAllocated, loggingThreadsBudget),
+                check("SwerveDriveSubsystem", parts.swerveDriveAllocated / measuredLoops, swerveDriveBudget),
+                check("ArmSubsystem", parts.armAllocated / measuredLoops, armBudget),
+                check("VisionSubsystem", parts.visionAllocated / measuredLoops, visionBudget),
+                check("GripperSubsystem", parts.gripperAllocated / measuredLoops, gripperBudget),
+                check("Logger", parts.loggerAllocated / measuredLoops, loggerBudget));
+    }
+
+    private static Executable check(String name, long allocated, long budget) {
+        System.out.printf("%s: %d bytes/loop, budget %d%n", name, allocated, budget);
+
+        return () -> assertTrue(
+                allocated <= budget, name + " allocated " + allocated + " bytes/loop, over its budget of " + budget);
+    }
+
+    private static void runLoops(Robot robot, int loops) {
+        for (int i = 0; i < loops; i++) {
+            SimHooks.stepTiming(TimesliceConstants.controllerPeriod);
+            robot.runHeadlessLoop();
+        }
+    }
+
+    private static long getLoggingThreadsAllocated() {
+        long allocated = 0;
+
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(loggingThreadName)) {
+                allocated += Math.max(threads.getThreadAllocatedBytes(thread.getId()), 0);
+            }
+        }
+
+        return allocated;
+    }
+
+    /**
+     * Runs each part of the loop directly, measuring the bytes each allocates. Commands and the simulated mechanisms
+     * still run between the parts, but are not counted.
+     */
+    private static class Parts {
+        private final SwerveDriveSubsystem swerveDriveSubsystem;
+        private final ArmSubsystem armSubsystem;
+        private final GripperSubsystem gripperSubsystem;
+        private final VisionSubsystem visionSubsystem;
+
+        // Created once, so measuring does not allocate
+        private final Runnable fastSwerveUpdates;
+        private final Runnable swerveDriveUpdate;
+        private final Runnable armUpdate;
+        private final Runnable gripperUpdate;
+        private final Runnable visionUpdate;
+        private final Runnable loggerUpdate = Logger::update;
+
+        private long swerveDriveAllocated = 0;
+        private long armAllocated = 0;
+        private long visionAllocated = 0;
+        private long gripperAllocated = 0;
+        private long loggerAllocated = 0;
+
+        private Parts(RobotContainer robotContainer) {
+            swerveDriveSubsystem = robotContainer.getSwerveDriveSubsystem();
+            armSubsystem = robotContainer.getArmSubsystem();
+            gripperSubsystem = robotContainer.getGripperSubsystem();
+
+            // Not created by the robot while it has no camera, so built here against the simulated NetworkTables
+            visionSubsystem = new VisionSubsystem(
+                    swerveDriveSubsystem::addVisionPoseEstimate, swerveDriveSubsystem::getPose);
+            CommandScheduler.getInstance().unregisterSubsystem(visionSubsystem);
+
+            // Odometry and temperatures are the swerve's, and the only updates on the multi-rate executor
+            fastSwerveUpdates =
+                    () -> robotContainer.getMultiRateExecutor().runHeadless(TimesliceConstants.controllerPeriod);
+            swerveDriveUpdate = swerveDriveSubsystem::update;
+            armUpdate = armSubsystem::update;
+            gripperUpdate = gripperSubsystem::update;
+            visionUpdate = visionSubsystem::periodic;
+        }
+
+        private void run(int loops) {
+            for (int i = 0; i < loops; i++) {
+                SimHooks.stepTiming(TimesliceConstants.controllerPeriod);
+                DriverStation.refreshData();
+
+                swerveDriveAllocated += measure(fastSwerveUpdates);
+
+                CommandScheduler.getInstance().run();
+
+                swerveDriveAllocated += measure(swerveDriveUpdate);
+                armAllocated += measure(armUpdate);
+                gripperAllocated += measure(gripperUpdate);
+                visionAllocated += measure(visionUpdate);
+                loggerAllocated += measure(loggerUpdate);
+            }
+        }
+
+        private void reset() {
+            swerveDriveAllocated = 0;
+            armAllocated = 0;
+            visionAllocated = 0;
+            gripperAllocated = 0;
+            loggerAllocated = 0;
+        }
+
+        private static long measure(Runnable part) {
+            long start = threads.getCurrentThreadAllocatedBytes();
+            part.run();
+            return threads.getCurrentThreadAllocatedBytes() - start;
+        }
+    }
+}
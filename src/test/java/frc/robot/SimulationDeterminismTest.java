@@ -0,0 +1,56 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the simulated match twice and checks that both runs produce the same state digest. Each run is its own JVM,
+ * since the robot's devices and the command scheduler can only be created once per process. Tagged slow, so it only
+ * runs with the slowTest task.
+ */
+@Tag("slow")
+class SimulationDeterminismTest {
+    // Printed by SimulationRunner at the end of a run
+    private static final String digestPrefix = "State digest: ";
+
+    @Test
+    void simulatedMatchIsReproducible() throws IOException, InterruptedException {
+        String firstDigest = runSimulatedMatch();
+        String secondDigest = runSimulatedMatch();
+
+        assertEquals(firstDigest, secondDigest, "Two runs of the same match produced different state digests");
+    }
+
+    private static String runSimulatedMatch() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(
+                        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-Djava.library.path=" + System.getProperty("java.library.path"),
+                        "-cp",
+                        System.getProperty("java.class.path"),
+                        Main.class.getName(),
+                        "--simulate")
+                .redirectErrorStream(true)
+                .start();
+
+        String digest = null;
+
+        try (BufferedReader reader = process.inputReader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                System.out.println(line);
+                if (line.startsWith(digestPrefix)) digest = line.substring(digestPrefix.length());
+            }
+        }
+
+        assertEquals(0, process.waitFor(), "The simulated match did not complete");
+        assertNotNull(digest, "The simulated match did not print a state digest");
+
+        return digest;
+    }
+}